@@ -12,6 +12,7 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.IdentityHashMap;
@@ -20,6 +21,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.IntPredicate;
 import net.minecraft.client.renderer.RenderType;
 import net.minecraft.client.renderer.block.model.BakedQuad;
 import net.minecraft.client.renderer.block.model.BlockModel;
@@ -30,6 +32,7 @@ import net.minecraft.client.resources.model.BakedModel;
 import net.minecraft.client.resources.model.Material;
 import net.minecraft.client.resources.model.ModelBaker;
 import net.minecraft.client.resources.model.ModelState;
+import net.minecraft.client.resources.model.SimpleBakedModel;
 import net.minecraft.client.resources.model.UnbakedModel;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
@@ -114,6 +117,11 @@ public class CompositeModel implements IUnbakedGeometry<CompositeModel>
 
     public static class Baked implements IDynamicBakedModel
     {
+        // The six directions by 3D data value, and the unculled quads last
+        private static final int SIDES = 7;
+        // Different sets of child render types kept flattened, enough for the blocks sharing one model
+        private static final int MAX_RENDER_TYPE_QUADS = 8;
+
         private final boolean isAmbientOcclusion;
         private final boolean isGui3d;
         private final boolean isSideLit;
@@ -122,6 +130,14 @@ public class CompositeModel implements IUnbakedGeometry<CompositeModel>
         private final ItemTransforms transforms;
         private final ImmutableMap<String, BakedModel> children;
         private final ImmutableList<BakedModel> itemPasses;
+        // Children in map order, with the quads of every side pre-fetched for the children that ignore model data
+        private final String[] childNames;
+        private final BakedModel[] childModels;
+        private final List<BakedQuad>[][] staticQuads;
+        // The quads of every child by side, if every child is static
+        @Nullable
+        private final List<BakedQuad>[] flattenedQuads;
+        private volatile RenderTypeQuads[] renderTypeQuads = new RenderTypeQuads[0];
 
         public Baked(boolean isGui3d, boolean isSideLit, boolean isAmbientOcclusion, TextureAtlasSprite particle, ItemTransforms transforms, ItemOverrides overrides, ImmutableMap<String, BakedModel> children, ImmutableList<BakedModel> itemPasses)
         {
@@ -133,23 +149,143 @@ public class CompositeModel implements IUnbakedGeometry<CompositeModel>
             this.overrides = overrides;
             this.transforms = transforms;
             this.itemPasses = itemPasses;
+
+            this.childNames = children.keySet().toArray(new String[0]);
+            this.childModels = children.values().toArray(new BakedModel[0]);
+            @SuppressWarnings("unchecked")
+            List<BakedQuad>[][] staticQuads = new List[childModels.length][];
+            this.staticQuads = staticQuads;
+            boolean allStatic = true;
+            RandomSource rand = RandomSource.create();
+            for (int i = 0; i < childModels.length; i++)
+            {
+                if (!isStatic(childModels[i]))
+                {
+                    allStatic = false;
+                    continue;
+                }
+                staticQuads[i] = newSideArray();
+                for (int side = 0; side < SIDES; side++)
+                    staticQuads[i][side] = childModels[i].getQuads(null, side == SIDES - 1 ? null : Direction.from3DDataValue(side), rand);
+            }
+            this.flattenedQuads = allStatic ? flatten(i -> true) : null;
+        }
+
+        /**
+         * A child is static if its quads only depend on the side and its render types only on the block state, so they
+         * can be fetched once instead of on every call. Subclasses of {@link SimpleBakedModel} may override either.
+         */
+        private static boolean isStatic(BakedModel model)
+        {
+            return model.getClass() == SimpleBakedModel.class;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static List<BakedQuad>[] newSideArray()
+        {
+            return new List[SIDES];
+        }
+
+        /**
+         * @return The quads of the static children matching the filter, concatenated in order, by side.
+         */
+        private List<BakedQuad>[] flatten(IntPredicate filter)
+        {
+            List<BakedQuad>[] ret = newSideArray();
+            for (int side = 0; side < SIDES; side++)
+            {
+                var builder = ImmutableList.<BakedQuad>builder();
+                for (int i = 0; i < childModels.length; i++)
+                {
+                    if (filter.test(i))
+                        builder.addAll(staticQuads[i][side]);
+                }
+                ret[side] = builder.build();
+            }
+            return ret;
         }
 
         @NotNull
         @Override
         public List<BakedQuad> getQuads(@Nullable BlockState state, @Nullable Direction side, @NotNull RandomSource rand, @NotNull ModelData data, @Nullable RenderType renderType)
         {
-            List<List<BakedQuad>> quadLists = new ArrayList<>();
-            for (Map.Entry<String, BakedModel> entry : children.entrySet())
+            int sideIndex = side == null ? SIDES - 1 : side.get3DDataValue();
+            if (flattenedQuads != null)
             {
-                if (renderType == null || (state != null && entry.getValue().getRenderTypes(state, rand, data).contains(renderType)))
+                if (renderType == null)
+                    return flattenedQuads[sideIndex];
+                if (state == null)
+                    return List.of();
+                RenderTypeQuads cached = getRenderTypeQuads(state, rand, data);
+                if (cached != null)
                 {
-                    quadLists.add(entry.getValue().getQuads(state, side, rand, CompositeModel.Data.resolve(data, entry.getKey()), renderType));
+                    List<BakedQuad>[] quads = cached.byType.get(renderType);
+                    return quads == null ? List.of() : quads[sideIndex];
+                }
+            }
+
+            List<List<BakedQuad>> quadLists = new ArrayList<>(childModels.length);
+            for (int i = 0; i < childModels.length; i++)
+            {
+                BakedModel child = childModels[i];
+                if (renderType == null || (state != null && child.getRenderTypes(state, rand, data).contains(renderType)))
+                {
+                    if (staticQuads[i] != null)
+                        quadLists.add(staticQuads[i][sideIndex]);
+                    else
+                        quadLists.add(child.getQuads(state, side, rand, CompositeModel.Data.resolve(data, childNames[i]), renderType));
                 }
             }
             return ConcatenatedListView.of(quadLists);
         }
 
+        /**
+         * @return The flattened quads by render type for the render types the children report for the given state,
+         *         built once for every distinct combination of child render type sets, or null if there are too many
+         *         combinations to keep and the caller has to concatenate the quads itself.
+         */
+        @Nullable
+        private RenderTypeQuads getRenderTypeQuads(BlockState state, RandomSource rand, ModelData data)
+        {
+            RenderTypeQuads[] cache = renderTypeQuads;
+            for (RenderTypeQuads cached : cache)
+            {
+                boolean matches = true;
+                // Static children return shared sets, so this does not allocate
+                for (int i = 0; i < childModels.length && matches; i++)
+                    matches = childModels[i].getRenderTypes(state, rand, data) == cached.childRenderTypes[i];
+                if (matches)
+                    return cached;
+            }
+            if (cache.length >= MAX_RENDER_TYPE_QUADS)
+                return null;
+
+            ChunkRenderTypeSet[] childRenderTypes = new ChunkRenderTypeSet[childModels.length];
+            for (int i = 0; i < childModels.length; i++)
+                childRenderTypes[i] = childModels[i].getRenderTypes(state, rand, data);
+            ChunkRenderTypeSet renderTypes = ChunkRenderTypeSet.union(childRenderTypes);
+            Map<RenderType, List<BakedQuad>[]> byType = new IdentityHashMap<>();
+            for (RenderType type : renderTypes)
+                byType.put(type, flatten(i -> childRenderTypes[i].contains(type)));
+            RenderTypeQuads ret = new RenderTypeQuads(childRenderTypes, renderTypes, byType);
+            synchronized (this)
+            {
+                // Another thread may have added entries in the meantime, a duplicate only costs memory
+                RenderTypeQuads[] current = renderTypeQuads;
+                if (current.length < MAX_RENDER_TYPE_QUADS)
+                {
+                    RenderTypeQuads[] added = Arrays.copyOf(current, current.length + 1);
+                    added[current.length] = ret;
+                    renderTypeQuads = added;
+                }
+            }
+            return ret;
+        }
+
+        private record RenderTypeQuads(ChunkRenderTypeSet[] childRenderTypes, ChunkRenderTypeSet renderTypes, Map<RenderType, List<BakedQuad>[]> byType)
+        {
+        }
+
         @Override
         public @NotNull ModelData getModelData(@NotNull BlockAndTintGetter level, @NotNull BlockPos pos, @NotNull BlockState state, @NotNull ModelData modelData)
         {
@@ -204,6 +340,9 @@ public class CompositeModel implements IUnbakedGeometry<CompositeModel>
         @Override
         public ChunkRenderTypeSet getRenderTypes(@NotNull BlockState state, @NotNull RandomSource rand, @NotNull ModelData data)
         {
+            RenderTypeQuads cached = flattenedQuads != null ? getRenderTypeQuads(state, rand, data) : null;
+            if (cached != null)
+                return cached.renderTypes;
             var sets = new ArrayList<ChunkRenderTypeSet>();
             for (Map.Entry<String, BakedModel> entry : children.entrySet())
                 sets.add(entry.getValue().getRenderTypes(state, rand, CompositeModel.Data.resolve(data, entry.getKey())));
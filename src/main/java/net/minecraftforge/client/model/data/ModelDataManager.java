@@ -6,7 +6,13 @@
 package net.minecraftforge.client.model.data;
 
 import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.entity.BlockEntity;
@@ -19,15 +25,21 @@ import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.AbstractMap;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A manager for the lifecycle of all the {@link ModelData} instances in a {@link Level}.
  * <p>
+ * Model data is stored per chunk section, keyed by {@link SectionPos#asLong packed section position} and
+ * {@link BlockPos#asLong packed block position}. Refresh requests are batched per section, and are only
+ * processed when data from that section is requested, so rebuilding a section never touches its neighbours.
+ * Data handed out by {@link #getAt(SectionPos)} and {@link #getAt(ChunkPos)} is an immutable snapshot and
+ * can safely be read from chunk compile threads.
+ * <p>
  * Users should not be instantiating or using this themselves unless they know what they're doing.
  */
 @ApiStatus.Internal
@@ -35,8 +47,8 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ModelDataManager
 {
     private final Level level;
-    private final Map<ChunkPos, Set<BlockPos>> needModelDataRefresh = new ConcurrentHashMap<>();
-    private final Map<ChunkPos, Map<BlockPos, ModelData>> modelDataCache = new ConcurrentHashMap<>();
+    // Guarded by itself, the sections guard their own contents
+    private final Long2ObjectMap<Section> sections = new Long2ObjectOpenHashMap<>();
 
     public ModelDataManager(Level level)
     {
@@ -46,42 +58,67 @@ public class ModelDataManager
     public void requestRefresh(@NotNull BlockEntity blockEntity)
     {
         Preconditions.checkNotNull(blockEntity, "Block entity must not be null");
-        needModelDataRefresh.computeIfAbsent(new ChunkPos(blockEntity.getBlockPos()), $ -> Collections.newSetFromMap(new ConcurrentHashMap<>()))
-                            .add(blockEntity.getBlockPos());
-    }
-
-    private void refreshAt(ChunkPos chunk)
-    {
-        Set<BlockPos> needUpdate = needModelDataRefresh.remove(chunk);
-
-        if (needUpdate != null)
+        BlockPos pos = blockEntity.getBlockPos();
+        long key = SectionPos.asLong(SectionPos.blockToSectionCoord(pos.getX()), SectionPos.blockToSectionCoord(pos.getY()), SectionPos.blockToSectionCoord(pos.getZ()));
+        Section section;
+        synchronized (sections)
         {
-            Map<BlockPos, ModelData> data = modelDataCache.computeIfAbsent(chunk, $ -> new ConcurrentHashMap<>());
-            for (BlockPos pos : needUpdate)
+            section = sections.get(key);
+            if (section == null)
             {
-                BlockEntity toUpdate = level.getBlockEntity(pos);
-                if (toUpdate != null && !toUpdate.isRemoved())
-                {
-                    data.put(pos, toUpdate.getModelData());
-                }
-                else
-                {
-                    data.remove(pos);
-                }
+                section = new Section();
+                sections.put(key, section);
             }
         }
+        section.request(pos.asLong());
     }
 
     public @Nullable ModelData getAt(BlockPos pos)
     {
-        return getAt(new ChunkPos(pos)).get(pos);
+        Preconditions.checkArgument(level.isClientSide, "Cannot request model data for server level");
+        Section section = getSection(SectionPos.asLong(SectionPos.blockToSectionCoord(pos.getX()), SectionPos.blockToSectionCoord(pos.getY()), SectionPos.blockToSectionCoord(pos.getZ())));
+        return section == null ? null : section.refresh(level).get(pos.asLong());
     }
 
+    /**
+     * @return A snapshot of the model data in the given section, refreshing only that section.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<BlockPos, ModelData> getAt(SectionPos pos)
+    {
+        Preconditions.checkArgument(level.isClientSide, "Cannot request model data for server level");
+        Section section = getSection(pos.asLong());
+        if (section == null)
+            return Collections.emptyMap();
+        return new DataView(pos.y(), new Long2ObjectMap[] { section.refresh(level) });
+    }
+
+    /**
+     * @return A snapshot of the model data in every section of the given chunk.
+     */
+    @SuppressWarnings("unchecked")
     public Map<BlockPos, ModelData> getAt(ChunkPos pos)
     {
         Preconditions.checkArgument(level.isClientSide, "Cannot request model data for server level");
-        refreshAt(pos);
-        return modelDataCache.getOrDefault(pos, Collections.emptyMap());
+        int minSection = level.getMinSection();
+        Long2ObjectMap<ModelData>[] data = new Long2ObjectMap[level.getMaxSection() - minSection];
+        boolean empty = true;
+        for (int i = 0; i < data.length; i++)
+        {
+            Section section = getSection(SectionPos.asLong(pos.x, minSection + i, pos.z));
+            data[i] = section == null ? Long2ObjectMaps.emptyMap() : section.refresh(level);
+            empty &= data[i].isEmpty();
+        }
+        return empty ? Collections.emptyMap() : new DataView(minSection, data);
+    }
+
+    @Nullable
+    private Section getSection(long key)
+    {
+        synchronized (sections)
+        {
+            return sections.get(key);
+        }
     }
 
     @SubscribeEvent
@@ -96,7 +133,118 @@ public class ModelDataManager
             return;
 
         ChunkPos chunk = event.getChunk().getPos();
-        modelDataManager.needModelDataRefresh.remove(chunk);
-        modelDataManager.modelDataCache.remove(chunk);
+        synchronized (modelDataManager.sections)
+        {
+            for (int y = level.getMinSection(); y < level.getMaxSection(); y++)
+                modelDataManager.sections.remove(SectionPos.asLong(chunk.x, y, chunk.z));
+        }
+    }
+
+    private static final class Section
+    {
+        // Guarded by this
+        private final LongSet pending = new LongOpenHashSet();
+        // Never modified once published, a refresh replaces it
+        private volatile Long2ObjectMap<ModelData> data = Long2ObjectMaps.emptyMap();
+
+        private synchronized void request(long pos)
+        {
+            pending.add(pos);
+        }
+
+        private synchronized Long2ObjectMap<ModelData> refresh(Level level)
+        {
+            if (pending.isEmpty())
+                return data;
+
+            long[] positions = pending.toLongArray();
+            pending.clear();
+            Long2ObjectOpenHashMap<ModelData> updated = new Long2ObjectOpenHashMap<>(data);
+            BlockPos.MutableBlockPos cursor = new BlockPos.MutableBlockPos();
+            for (long pos : positions)
+            {
+                BlockEntity toUpdate = level.getBlockEntity(cursor.set(pos));
+                if (toUpdate != null && !toUpdate.isRemoved())
+                {
+                    updated.put(pos, toUpdate.getModelData());
+                }
+                else
+                {
+                    updated.remove(pos);
+                }
+            }
+            data = updated.isEmpty() ? Long2ObjectMaps.emptyMap() : updated;
+            return data;
+        }
+    }
+
+    /**
+     * Read-only view over the data of a vertical run of sections, looking up by packed position.
+     */
+    private static final class DataView extends AbstractMap<BlockPos, ModelData>
+    {
+        private final int minSection;
+        private final Long2ObjectMap<ModelData>[] bySection;
+        @Nullable
+        private Set<Entry<BlockPos, ModelData>> entries;
+
+        private DataView(int minSection, Long2ObjectMap<ModelData>[] bySection)
+        {
+            this.minSection = minSection;
+            this.bySection = bySection;
+        }
+
+        @Nullable
+        private Long2ObjectMap<ModelData> sectionOf(Object key)
+        {
+            if (!(key instanceof BlockPos pos))
+                return null;
+            int index = SectionPos.blockToSectionCoord(pos.getY()) - minSection;
+            return index < 0 || index >= bySection.length ? null : bySection[index];
+        }
+
+        @Override
+        public ModelData get(Object key)
+        {
+            Long2ObjectMap<ModelData> section = sectionOf(key);
+            return section == null ? null : section.get(((BlockPos) key).asLong());
+        }
+
+        @Override
+        public ModelData getOrDefault(Object key, ModelData defaultValue)
+        {
+            ModelData ret = get(key);
+            return ret != null ? ret : defaultValue;
+        }
+
+        @Override
+        public boolean containsKey(Object key)
+        {
+            Long2ObjectMap<ModelData> section = sectionOf(key);
+            return section != null && section.containsKey(((BlockPos) key).asLong());
+        }
+
+        @Override
+        public int size()
+        {
+            int size = 0;
+            for (Long2ObjectMap<ModelData> section : bySection)
+                size += section.size();
+            return size;
+        }
+
+        @Override
+        public Set<Entry<BlockPos, ModelData>> entrySet()
+        {
+            // Only needed by callers iterating the whole view, which is rare enough to copy on demand
+            if (entries == null)
+            {
+                Map<BlockPos, ModelData> copy = new HashMap<>();
+                for (Long2ObjectMap<ModelData> section : bySection)
+                    section.long2ObjectEntrySet().forEach(e -> copy.put(BlockPos.of(e.getLongKey()), e.getValue()));
+                entries = Collections.unmodifiableMap(copy).entrySet();
+            }
+            return entries;
+        }
     }
 }
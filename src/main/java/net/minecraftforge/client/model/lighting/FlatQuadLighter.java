@@ -6,7 +6,6 @@
 package net.minecraftforge.client.model.lighting;
 
 import net.minecraft.client.color.block.BlockColors;
-import net.minecraft.client.renderer.LevelRenderer;
 import net.minecraft.client.renderer.block.model.BakedQuad;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
@@ -24,6 +23,7 @@ public class FlatQuadLighter extends QuadLighter
     private static final float MAX_POSITION = 1f - 1e-2f;
     private static final byte MAX_NORMAL = 127;
 
+    private final BlockPos.MutableBlockPos neighborPos = new BlockPos.MutableBlockPos();
     private boolean isFullCube;
     private final int[] packedLight = new int[7];
 
@@ -35,12 +35,13 @@ public class FlatQuadLighter extends QuadLighter
     @Override
     protected void computeLightingAt(BlockAndTintGetter level, BlockPos pos, BlockState state)
     {
+        SectionLightCache cache = SectionLightCache.get(level, pos);
         isFullCube = Block.isShapeFullBlock(state.getCollisionShape(level, pos));
         for (Direction side : SIDES)
         {
-            packedLight[side.ordinal()] = LevelRenderer.getLightColor(level, state, pos.relative(side));
+            packedLight[side.ordinal()] = cache.getLightColor(state, neighborPos.setWithOffset(pos, side));
         }
-        packedLight[6] = LevelRenderer.getLightColor(level, state, pos);
+        packedLight[6] = cache.getLightColor(state, pos);
     }
 
     @Override
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) Forge Development LLC and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.minecraftforge.client.model.lighting;
+
+import net.minecraft.client.renderer.LightTexture;
+import net.minecraft.client.renderer.chunk.RenderChunkRegion;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.BlockAndTintGetter;
+import net.minecraft.world.level.LightLayer;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.Arrays;
+
+/**
+ * Per-thread cache of the block states, light levels and shade values sampled by the {@link QuadLighter quad lighters}.
+ * <p>
+ * Neighbouring blocks sample mostly the same positions, so while a chunk section is being meshed every position of
+ * the section and its one block border is only queried once. Caching is limited to {@link RenderChunkRegion}s,
+ * which are immutable snapshots created for a single section rebuild; a different region starts over. Any other
+ * level is queried directly, as is everything outside of the cached volume.
+ */
+final class SectionLightCache
+{
+    private static final ThreadLocal<SectionLightCache> CACHE = ThreadLocal.withInitial(SectionLightCache::new);
+    // A section plus a one block border on every side
+    private static final int SIZE = 18;
+    private static final int VOLUME = SIZE * SIZE * SIZE;
+
+    private final int[] generations = new int[VOLUME];
+    private final BlockState[] states = new BlockState[VOLUME];
+    private final byte[] lightBlock = new byte[VOLUME];
+    private final byte[] skyLight = new byte[VOLUME];
+    private final byte[] blockLight = new byte[VOLUME];
+    private final float[] shade = new float[VOLUME];
+    private BlockAndTintGetter level;
+    private boolean enabled;
+    private int generation;
+    private int minX, minY, minZ;
+
+    private SectionLightCache()
+    {
+    }
+
+    /**
+     * @return The calling thread's cache, set up for sampling around the given position.
+     */
+    static SectionLightCache get(BlockAndTintGetter level, BlockPos origin)
+    {
+        SectionLightCache cache = CACHE.get();
+        cache.prepare(level, origin);
+        return cache;
+    }
+
+    private void prepare(BlockAndTintGetter level, BlockPos origin)
+    {
+        enabled = level instanceof RenderChunkRegion;
+        if (!enabled)
+        {
+            this.level = level;
+            return;
+        }
+
+        if (level == this.level && isInSection(origin))
+            return;
+
+        this.level = level;
+        minX = (origin.getX() & ~15) - 1;
+        minY = (origin.getY() & ~15) - 1;
+        minZ = (origin.getZ() & ~15) - 1;
+        if (++generation == 0)
+        {
+            // Wrapped around, entries of the first generation would look valid again
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+    }
+
+    private boolean isInSection(BlockPos pos)
+    {
+        return ((pos.getX() - minX - 1) & ~15) == 0 && ((pos.getY() - minY - 1) & ~15) == 0 && ((pos.getZ() - minZ - 1) & ~15) == 0;
+    }
+
+    private int indexOf(BlockPos pos)
+    {
+        int x = pos.getX() - minX;
+        int y = pos.getY() - minY;
+        int z = pos.getZ() - minZ;
+        if (x < 0 || y < 0 || z < 0 || x >= SIZE || y >= SIZE || z >= SIZE)
+            return -1;
+        return (y * SIZE + z) * SIZE + x;
+    }
+
+    /**
+     * @return The index of the cached entry for the given position, loading it if needed, or -1 if it is not cached.
+     */
+    private int load(BlockPos pos)
+    {
+        if (!enabled)
+            return -1;
+        int index = indexOf(pos);
+        if (index < 0 || generations[index] == generation)
+            return index;
+
+        BlockState state = level.getBlockState(pos);
+        states[index] = state;
+        lightBlock[index] = (byte) state.getLightBlock(level, pos);
+        skyLight[index] = (byte) level.getBrightness(LightLayer.SKY, pos);
+        blockLight[index] = (byte) level.getBrightness(LightLayer.BLOCK, pos);
+        shade[index] = Float.NaN;
+        generations[index] = generation;
+        return index;
+    }
+
+    BlockState getBlockState(BlockPos pos)
+    {
+        int index = load(pos);
+        return index < 0 ? level.getBlockState(pos) : states[index];
+    }
+
+    int getLightBlock(BlockPos pos)
+    {
+        int index = load(pos);
+        return index < 0 ? level.getBlockState(pos).getLightBlock(level, pos) : lightBlock[index];
+    }
+
+    float getShadeBrightness(BlockPos pos)
+    {
+        int index = load(pos);
+        if (index < 0)
+            return level.getBlockState(pos).getShadeBrightness(level, pos);
+        float ret = shade[index];
+        if (Float.isNaN(ret))
+            ret = shade[index] = states[index].getShadeBrightness(level, pos);
+        return ret;
+    }
+
+    /**
+     * Equivalent to {@link net.minecraft.client.renderer.LevelRenderer#getLightColor(BlockAndTintGetter, BlockState, BlockPos)},
+     * reusing the cached light levels of the position.
+     */
+    int getLightColor(BlockState state, BlockPos pos)
+    {
+        if (state.emissiveRendering(level, pos))
+            return LightTexture.FULL_BRIGHT;
+
+        int index = load(pos);
+        int sky = index < 0 ? level.getBrightness(LightLayer.SKY, pos) : skyLight[index];
+        int block = index < 0 ? level.getBrightness(LightLayer.BLOCK, pos) : blockLight[index];
+        return LightTexture.pack(Math.max(block, state.getLightEmission(level, pos)), sky);
+    }
+}
@@ -6,7 +6,6 @@
 package net.minecraftforge.client.model.lighting;
 
 import net.minecraft.client.color.block.BlockColors;
-import net.minecraft.client.renderer.LevelRenderer;
 import net.minecraft.client.renderer.LightTexture;
 import net.minecraft.client.renderer.block.model.BakedQuad;
 import net.minecraft.core.BlockPos;
@@ -41,6 +40,7 @@ public class SmoothQuadLighter extends QuadLighter
     @Override
     protected void computeLightingAt(BlockAndTintGetter level, BlockPos origin, BlockState state)
     {
+        SectionLightCache cache = SectionLightCache.get(level, origin);
         for (int x = 0; x <= 2; x++)
         {
             for (int y = 0; y <= 2; y++)
@@ -48,24 +48,24 @@ public class SmoothQuadLighter extends QuadLighter
                 for (int z = 0; z <= 2; z++)
                 {
                     pos.setWithOffset(origin, x - 1, y - 1, z - 1);
-                    BlockState neighborState = level.getBlockState(pos);
-                    t[x][y][z] = neighborState.getLightBlock(level, pos) < 15;
-                    int brightness = LevelRenderer.getLightColor(level, neighborState, pos);
+                    BlockState neighborState = cache.getBlockState(pos);
+                    t[x][y][z] = cache.getLightBlock(pos) < 15;
+                    int brightness = cache.getLightColor(neighborState, pos);
                     s[x][y][z] = LightTexture.sky(brightness);
                     b[x][y][z] = LightTexture.block(brightness);
-                    ao[x][y][z] = neighborState.getShadeBrightness(level, pos);
+                    ao[x][y][z] = cache.getShadeBrightness(pos);
                 }
             }
         }
         for (Direction side : SIDES)
         {
             pos.setWithOffset(origin, side);
-            BlockState neighborState = level.getBlockState(pos);
+            BlockState neighborState = cache.getBlockState(pos);
 
             BlockState thisStateShape = state.canOcclude() && state.useShapeForLightOcclusion() ? state : Blocks.AIR.defaultBlockState();
             BlockState otherStateShape = neighborState.canOcclude() && neighborState.useShapeForLightOcclusion() ? neighborState : Blocks.AIR.defaultBlockState();
 
-            if (neighborState.getLightBlock(level, pos) == 15 || Shapes.faceShapeOccludes(thisStateShape.getFaceOcclusionShape(level, origin, side), otherStateShape.getFaceOcclusionShape(level, pos, side.getOpposite())))
+            if (cache.getLightBlock(pos) == 15 || Shapes.faceShapeOccludes(thisStateShape.getFaceOcclusionShape(level, origin, side), otherStateShape.getFaceOcclusionShape(level, pos, side.getOpposite())))
             {
                 int x = side.getStepX() + 1;
                 int y = side.getStepY() + 1;
@@ -7,6 +7,7 @@ package net.minecraftforge.client.model.obj;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
@@ -17,8 +18,23 @@ import net.minecraft.server.packs.resources.ResourceManager;
 import net.minecraft.server.packs.resources.ResourceManagerReloadListener;
 import net.minecraft.util.GsonHelper;
 import net.minecraftforge.client.model.geometry.IGeometryLoader;
+import net.minecraftforge.common.ForgeConfig;
+import net.minecraftforge.fml.loading.FMLPaths;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Map;
 
 /**
@@ -26,11 +42,18 @@ import java.util.Map;
  * <p>
  * Allows the user to enable automatic face culling, toggle quad shading, flip UVs, render emissively and specify a
  * {@link ObjMaterialLibrary material library} override.
+ * <p>
+ * When enabled in the client config, parsed geometry is also cached on disk, keyed by a hash of the OBJ file, so
+ * unchanged models skip parsing on later reloads.
  */
 public class ObjLoader implements IGeometryLoader<ObjModel>, ResourceManagerReloadListener
 {
     public static ObjLoader INSTANCE = new ObjLoader();
 
+    private static final Logger LOGGER = LogManager.getLogger();
+    // Bump whenever the layout written by ObjModel.write changes
+    private static final int CACHE_VERSION = 1;
+
     private final Map<ObjModel.ModelSettings, ObjModel> modelCache = Maps.newConcurrentMap();
     private final Map<ResourceLocation, ObjMaterialLibrary> materialCache = Maps.newConcurrentMap();
 
@@ -65,6 +88,8 @@ public class ObjLoader implements IGeometryLoader<ObjModel>, ResourceManagerRelo
     {
         return modelCache.computeIfAbsent(settings, (data) -> {
             Resource resource = manager.getResource(settings.modelLocation()).orElseThrow();
+            if (ForgeConfig.CLIENT.cacheObjModels.get())
+                return loadCachedModel(resource, settings);
             try (ObjTokenizer tokenizer = new ObjTokenizer(resource.open()))
             {
                 return ObjModel.parse(tokenizer, settings);
@@ -78,6 +103,83 @@ public class ObjLoader implements IGeometryLoader<ObjModel>, ResourceManagerRelo
         });
     }
 
+    /**
+     * Loads a model through the geometry cache, keyed by a hash of the OBJ file and the settings that affect parsing.
+     * Anything going wrong with the cache itself only falls back to parsing the file.
+     */
+    private ObjModel loadCachedModel(Resource resource, ObjModel.ModelSettings settings)
+    {
+        byte[] bytes;
+        try (InputStream stream = resource.open())
+        {
+            bytes = stream.readAllBytes();
+        } catch (FileNotFoundException e)
+        {
+            throw new RuntimeException("Could not find OBJ model", e);
+        } catch (IOException e)
+        {
+            throw new RuntimeException("Could not read OBJ model", e);
+        }
+
+        Path cacheFile = getCacheDirectory().resolve(getCacheKey(settings, bytes) + ".bin");
+        if (Files.isRegularFile(cacheFile))
+        {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile))))
+            {
+                if (in.readInt() == CACHE_VERSION)
+                    return ObjModel.read(in, settings);
+            } catch (IOException | RuntimeException e)
+            {
+                LOGGER.debug("Ignoring unreadable OBJ cache entry {} for {}", cacheFile, settings.modelLocation(), e);
+            }
+        }
+
+        ObjModel model;
+        try (ObjTokenizer tokenizer = new ObjTokenizer(new ByteArrayInputStream(bytes)))
+        {
+            model = ObjModel.parse(tokenizer, settings);
+        } catch (Exception e)
+        {
+            throw new RuntimeException("Could not read OBJ model", e);
+        }
+
+        try
+        {
+            Files.createDirectories(cacheFile.getParent());
+            Path temp = Files.createTempFile(cacheFile.getParent(), "obj", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp))))
+            {
+                out.writeInt(CACHE_VERSION);
+                model.write(out);
+            } catch (IOException | RuntimeException e)
+            {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e)
+        {
+            LOGGER.debug("Failed to write OBJ cache entry for {}", settings.modelLocation(), e);
+        }
+        return model;
+    }
+
+    private static Path getCacheDirectory()
+    {
+        return FMLPaths.GAMEDIR.get().resolve(".cache").resolve("forge").resolve("obj");
+    }
+
+    private static String getCacheKey(ObjModel.ModelSettings settings, byte[] bytes)
+    {
+        // The location matters for relative material library references
+        return Hashing.sha256().newHasher()
+                .putInt(CACHE_VERSION)
+                .putString(settings.modelLocation().toString(), StandardCharsets.UTF_8)
+                .putString(String.valueOf(settings.mtlOverride()), StandardCharsets.UTF_8)
+                .putBytes(bytes)
+                .hash().toString();
+    }
+
     public ObjMaterialLibrary loadMaterialLibrary(ResourceLocation materialLocation)
     {
         return materialCache.computeIfAbsent(materialLocation, (location) -> {
@@ -9,6 +9,8 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.mojang.math.Transformation;
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import net.minecraft.client.renderer.LightTexture;
 import net.minecraft.client.renderer.block.model.BakedQuad;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
@@ -28,12 +30,13 @@ import net.minecraftforge.client.model.pipeline.QuadBakingVertexConsumer;
 import net.minecraftforge.client.model.renderable.CompositeRenderable;
 import net.minecraftforge.client.textures.UnitTextureAtlasSprite;
 import org.apache.commons.lang3.tuple.Pair;
-import org.apache.logging.log4j.util.Strings;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.joml.Vector3f;
 import org.joml.Vector4f;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.util.*;
 import java.util.function.Function;
@@ -49,21 +52,26 @@ import java.util.stream.Stream;
 public class ObjModel extends SimpleUnbakedGeometry<ObjModel>
 {
     private static final Vector4f COLOR_WHITE = new Vector4f(1, 1, 1, 1);
+    // Most frequent first, since lines are matched against these in order
+    private static final String[] KEYWORDS = { "v", "vt", "vn", "f", "vc", "usemtl", "s", "g", "o", "mtllib" };
     private static final Vec2[] DEFAULT_COORDS = {
             new Vec2(0, 0),
             new Vec2(0, 1),
             new Vec2(1, 1),
             new Vec2(1, 0),
     };
+    // Position, texture coordinate, normal and color indices of a face vertex
+    private static final int VERTEX_SIZE = 4;
 
     private final Map<String, ModelGroup> parts = Maps.newLinkedHashMap();
     private final Set<String> rootComponentNames = Collections.unmodifiableSet(parts.keySet());
     private Set<String> allComponentNames;
 
-    private final List<Vector3f> positions = Lists.newArrayList();
-    private final List<Vec2> texCoords = Lists.newArrayList();
-    private final List<Vector3f> normals = Lists.newArrayList();
-    private final List<Vector4f> colors = Lists.newArrayList();
+    // Flattened vertex attributes: xyz positions, uv texture coordinates, xyz normals and rgba colors
+    private final FloatArrayList positions = new FloatArrayList();
+    private final FloatArrayList texCoords = new FloatArrayList();
+    private final FloatArrayList normals = new FloatArrayList();
+    private final FloatArrayList colors = new FloatArrayList();
 
     public final boolean automaticCulling;
     public final boolean shadeQuads;
@@ -100,7 +108,9 @@ public class ObjModel extends SimpleUnbakedGeometry<ObjModel>
             modelPath = "";
 
         ObjMaterialLibrary mtllib = ObjMaterialLibrary.EMPTY;
+        ResourceLocation mtllibLocation = null;
         ObjMaterialLibrary.Material currentMat = null;
+        ResourceLocation currentMatLibrary = null;
         String currentSmoothingGroup = null;
         ModelGroup currentGroup = null;
         ModelObject currentObject = null;
@@ -112,39 +122,43 @@ public class ObjModel extends SimpleUnbakedGeometry<ObjModel>
         {
             String lib = materialLibraryOverrideLocation;
             if (lib.contains(":"))
-                mtllib = ObjLoader.INSTANCE.loadMaterialLibrary(new ResourceLocation(lib));
+                mtllibLocation = new ResourceLocation(lib);
             else
-                mtllib = ObjLoader.INSTANCE.loadMaterialLibrary(new ResourceLocation(modelDomain, modelPath + lib));
+                mtllibLocation = new ResourceLocation(modelDomain, modelPath + lib);
+            mtllib = ObjLoader.INSTANCE.loadMaterialLibrary(mtllibLocation);
         }
 
-        String[] line;
-        while ((line = tokenizer.readAndSplitLine(true)) != null)
+        int[] indices = new int[VERTEX_SIZE];
+        while (tokenizer.nextLine(true))
         {
-            switch (line[0])
+            switch (tokenizer.matchToken(0, KEYWORDS))
             {
                 case "mtllib": // Loads material library
                 {
                     if (materialLibraryOverrideLocation != null)
                         break;
 
-                    String lib = line[1];
+                    String lib = tokenizer.token(1);
                     if (lib.contains(":"))
-                        mtllib = ObjLoader.INSTANCE.loadMaterialLibrary(new ResourceLocation(lib));
+                        mtllibLocation = new ResourceLocation(lib);
                     else
-                        mtllib = ObjLoader.INSTANCE.loadMaterialLibrary(new ResourceLocation(modelDomain, modelPath + lib));
+                        mtllibLocation = new ResourceLocation(modelDomain, modelPath + lib);
+                    mtllib = ObjLoader.INSTANCE.loadMaterialLibrary(mtllibLocation);
                     break;
                 }
 
                 case "usemtl": // Sets the current material (starts new mesh)
                 {
-                    String mat = Strings.join(Arrays.stream(Arrays.copyOfRange(line, 1, line.length)).iterator(), ' ');
+                    String mat = tokenizer.tokensFrom(1);
                     ObjMaterialLibrary.Material newMat = mtllib.getMaterial(mat);
                     if (!Objects.equals(newMat, currentMat))
                     {
                         currentMat = newMat;
-                        if (currentMesh != null && currentMesh.mat == null && currentMesh.faces.size() == 0)
+                        currentMatLibrary = mtllibLocation;
+                        if (currentMesh != null && currentMesh.mat == null && currentMesh.faceCount == 0)
                         {
                             currentMesh.mat = currentMat;
+                            currentMesh.matLibrary = currentMatLibrary;
                         }
                         else
                         {
@@ -156,23 +170,35 @@ public class ObjModel extends SimpleUnbakedGeometry<ObjModel>
                 }
 
                 case "v": // Vertex
-                    model.positions.add(parseVector4To3(line));
+                {
+                    // Missing components default like in parseVector4, a lone "v" ends up with w = 0
+                    float w = readComponent(tokenizer, 4, tokenizer.tokenCount() == 1 ? 0 : 1);
+                    model.positions.add(readComponent(tokenizer, 1, 0) / w);
+                    model.positions.add(readComponent(tokenizer, 2, 0) / w);
+                    model.positions.add(readComponent(tokenizer, 3, 0) / w);
                     break;
+                }
                 case "vt": // Vertex texcoord
-                    model.texCoords.add(parseVector2(line));
+                    model.texCoords.add(readComponent(tokenizer, 1, 0));
+                    model.texCoords.add(readComponent(tokenizer, 2, 0));
                     break;
                 case "vn": // Vertex normal
-                    model.normals.add(parseVector3(line));
+                    model.normals.add(readComponent(tokenizer, 1, 0));
+                    model.normals.add(readComponent(tokenizer, 2, 0));
+                    model.normals.add(readComponent(tokenizer, 3, 0));
                     break;
                 case "vc": // Vertex color (non-standard)
-                    model.colors.add(parseVector4(line));
+                    model.colors.add(readComponent(tokenizer, 1, 0));
+                    model.colors.add(readComponent(tokenizer, 2, 0));
+                    model.colors.add(readComponent(tokenizer, 3, 0));
+                    model.colors.add(readComponent(tokenizer, 4, tokenizer.tokenCount() == 1 ? 0 : 1));
                     break;
 
                 case "f": // Face
                 {
                     if (currentMesh == null)
                     {
-                        currentMesh = model.new ModelMesh(currentMat, currentSmoothingGroup);
+                        currentMesh = model.new ModelMesh(currentMat, currentMatLibrary, currentSmoothingGroup);
                         if (currentObject != null)
                         {
                             currentObject.meshes.add(currentMesh);
@@ -188,44 +214,28 @@ public class ObjModel extends SimpleUnbakedGeometry<ObjModel>
                         }
                     }
 
-                    int[][] vertices = new int[line.length - 1][];
-                    for (int i = 0; i < vertices.length; i++)
+                    int vertexCount = tokenizer.tokenCount() - 1;
+                    currentMesh.faces.add(vertexCount);
+                    for (int i = 0; i < vertexCount; i++)
                     {
-                        String vertexData = line[i + 1];
-                        String[] vertexParts = vertexData.split("/");
-                        int[] vertex = Arrays.stream(vertexParts).mapToInt(num -> com.google.common.base.Strings.isNullOrEmpty(num) ? 0 : Integer.parseInt(num)).toArray();
-                        if (vertex[0] < 0) vertex[0] = model.positions.size() + vertex[0];
-                        else vertex[0]--;
-                        if (vertex.length > 1)
-                        {
-                            if (vertex[1] < 0) vertex[1] = model.texCoords.size() + vertex[1];
-                            else vertex[1]--;
-                            if (vertex.length > 2)
-                            {
-                                if (vertex[2] < 0) vertex[2] = model.normals.size() + vertex[2];
-                                else vertex[2]--;
-                                if (vertex.length > 3)
-                                {
-                                    if (vertex[3] < 0) vertex[3] = model.colors.size() + vertex[3];
-                                    else vertex[3]--;
-                                }
-                            }
-                        }
-                        vertices[i] = vertex;
+                        int parts = tokenizer.parseIndices(i + 1, indices);
+                        currentMesh.faces.add(resolveIndex(indices[0], model.positions.size() / 3));
+                        currentMesh.faces.add(parts > 1 ? resolveIndex(indices[1], model.texCoords.size() / 2) : -1);
+                        currentMesh.faces.add(parts > 2 ? resolveIndex(indices[2], model.normals.size() / 3) : -1);
+                        currentMesh.faces.add(parts > 3 ? resolveIndex(indices[3], model.colors.size() / 4) : -1);
                     }
-
-                    currentMesh.faces.add(vertices);
+                    currentMesh.faceCount++;
 
                     break;
                 }
 
                 case "s": // Smoothing group (starts new mesh)
                 {
-                    String smoothingGroup = "off".equals(line[1]) ? null : line[1];
+                    String smoothingGroup = tokenizer.isToken(1, "off") ? null : tokenizer.token(1);
                     if (!Objects.equals(currentSmoothingGroup, smoothingGroup))
                     {
                         currentSmoothingGroup = smoothingGroup;
-                        if (currentMesh != null && currentMesh.smoothingGroup == null && currentMesh.faces.size() == 0)
+                        if (currentMesh != null && currentMesh.smoothingGroup == null && currentMesh.faceCount == 0)
                         {
                             currentMesh.smoothingGroup = currentSmoothingGroup;
                         }
@@ -240,7 +250,7 @@ public class ObjModel extends SimpleUnbakedGeometry<ObjModel>
 
                 case "g":
                 {
-                    String name = line[1];
+                    String name = tokenizer.token(1);
                     if (objAboveGroup)
                     {
                         currentObject = model.new ModelObject(currentGroup.name() + "/" + name);
@@ -259,7 +269,7 @@ public class ObjModel extends SimpleUnbakedGeometry<ObjModel>
 
                 case "o":
                 {
-                    String name = line[1];
+                    String name = tokenizer.token(1);
                     if (objAboveGroup || currentGroup == null)
                     {
                         objAboveGroup = true;
@@ -282,35 +292,121 @@ public class ObjModel extends SimpleUnbakedGeometry<ObjModel>
         return model;
     }
 
-    private static Vector3f parseVector4To3(String[] line)
+    private static float readComponent(ObjTokenizer tokenizer, int index, float fallback)
     {
-        Vector4f vec4 = parseVector4(line);
-        return new Vector3f(
-                vec4.x() / vec4.w(),
-                vec4.y() / vec4.w(),
-                vec4.z() / vec4.w()
-        );
+        return index < tokenizer.tokenCount() ? tokenizer.parseFloat(index) : fallback;
     }
 
-    private static Vec2 parseVector2(String[] line)
+    /**
+     * Converts a 1-based, or negative and relative, OBJ index to a 0-based one. Missing indices become -1.
+     */
+    private static int resolveIndex(int index, int count)
     {
-        return switch (line.length)
+        return index < 0 ? count + index : index - 1;
+    }
+
+    /**
+     * Writes the parsed geometry, so that {@link #read(DataInput, ModelSettings)} can restore it without parsing
+     * the OBJ file again. Materials are stored by name and loaded again when reading.
+     */
+    void write(DataOutput out) throws IOException
+    {
+        writeFloats(out, positions);
+        writeFloats(out, texCoords);
+        writeFloats(out, normals);
+        writeFloats(out, colors);
+        out.writeInt(parts.size());
+        for (var entry : parts.entrySet())
         {
-            case 1 -> new Vec2(0, 0);
-            case 2 -> new Vec2(Float.parseFloat(line[1]), 0);
-            default -> new Vec2(Float.parseFloat(line[1]), Float.parseFloat(line[2]));
-        };
+            ModelGroup group = entry.getValue();
+            out.writeUTF(entry.getKey());
+            out.writeUTF(group.name());
+            writeMeshes(out, group.meshes);
+            out.writeInt(group.parts.size());
+            for (var child : group.parts.entrySet())
+            {
+                out.writeUTF(child.getKey());
+                out.writeUTF(child.getValue().name());
+                writeMeshes(out, child.getValue().meshes);
+            }
+        }
     }
 
-    private static Vector3f parseVector3(String[] line)
+    static ObjModel read(DataInput in, ModelSettings settings) throws IOException
     {
-        return switch (line.length)
+        var model = new ObjModel(settings);
+        readFloats(in, model.positions);
+        readFloats(in, model.texCoords);
+        readFloats(in, model.normals);
+        readFloats(in, model.colors);
+        int groups = in.readInt();
+        for (int i = 0; i < groups; i++)
         {
-            case 1 -> new Vector3f();
-            case 2 -> new Vector3f(Float.parseFloat(line[1]), 0, 0);
-            case 3 -> new Vector3f(Float.parseFloat(line[1]), Float.parseFloat(line[2]), 0);
-            default -> new Vector3f(Float.parseFloat(line[1]), Float.parseFloat(line[2]), Float.parseFloat(line[3]));
-        };
+            String key = in.readUTF();
+            ModelGroup group = model.new ModelGroup(in.readUTF());
+            model.readMeshes(in, group.meshes);
+            model.parts.put(key, group);
+            int children = in.readInt();
+            for (int j = 0; j < children; j++)
+            {
+                String childKey = in.readUTF();
+                ModelObject child = model.new ModelObject(in.readUTF());
+                model.readMeshes(in, child.meshes);
+                group.parts.put(childKey, child);
+            }
+        }
+        return model;
+    }
+
+    private static void writeMeshes(DataOutput out, List<ModelMesh> meshes) throws IOException
+    {
+        out.writeInt(meshes.size());
+        for (ModelMesh mesh : meshes)
+            mesh.write(out);
+    }
+
+    private void readMeshes(DataInput in, List<ModelMesh> meshes) throws IOException
+    {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++)
+        {
+            ModelMesh mesh = new ModelMesh(null, null, null);
+            mesh.read(in);
+            meshes.add(mesh);
+        }
+    }
+
+    private static void writeFloats(DataOutput out, FloatArrayList values) throws IOException
+    {
+        out.writeInt(values.size());
+        for (int i = 0; i < values.size(); i++)
+            out.writeFloat(values.getFloat(i));
+    }
+
+    private static void readFloats(DataInput in, FloatArrayList values) throws IOException
+    {
+        int size = in.readInt();
+        values.ensureCapacity(size);
+        for (int i = 0; i < size; i++)
+            values.add(in.readFloat());
+    }
+
+    private static void writeNullableString(DataOutput out, @Nullable String value) throws IOException
+    {
+        out.writeBoolean(value != null);
+        if (value != null)
+            out.writeUTF(value);
+    }
+
+    @Nullable
+    private static String readNullableString(DataInput in) throws IOException
+    {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private Vector3f getPosition(int index)
+    {
+        return new Vector3f(positions.getFloat(index * 3), positions.getFloat(index * 3 + 1), positions.getFloat(index * 3 + 2));
     }
 
     static Vector4f parseVector4(String[] line)
@@ -348,19 +444,25 @@ public class ObjModel extends SimpleUnbakedGeometry<ObjModel>
         return allComponentNames = Collections.unmodifiableSet(names);
     }
 
-    private Pair<BakedQuad, Direction> makeQuad(int[][] indices, int tintIndex, Vector4f colorTint, Vector4f ambientColor, TextureAtlasSprite texture, Transformation transform)
+    /**
+     * @param face   The face data of a mesh, see {@link ModelMesh#faces}
+     * @param offset The offset of the face's vertex count in that data
+     */
+    private Pair<BakedQuad, Direction> makeQuad(int[] face, int offset, int tintIndex, Vector4f colorTint, Vector4f ambientColor, TextureAtlasSprite texture, Transformation transform)
     {
+        int vertexCount = face[offset];
+        int firstVertex = offset + 1;
         boolean needsNormalRecalculation = false;
-        for (int[] ints : indices)
+        for (int i = 0; i < vertexCount; i++)
         {
-            needsNormalRecalculation |= ints.length < 3;
+            needsNormalRecalculation |= face[firstVertex + i * VERTEX_SIZE + 2] < 0;
         }
         Vector3f faceNormal = new Vector3f();
         if (needsNormalRecalculation)
         {
-            Vector3f a = positions.get(indices[0][0]);
-            Vector3f ab = positions.get(indices[1][0]);
-            Vector3f ac = positions.get(indices[2][0]);
+            Vector3f a = getPosition(face[firstVertex]);
+            Vector3f ab = getPosition(face[firstVertex + Math.min(1, vertexCount - 1) * VERTEX_SIZE]);
+            Vector3f ac = getPosition(face[firstVertex + Math.min(2, vertexCount - 1) * VERTEX_SIZE]);
             Vector3f abs = new Vector3f(ab);
             abs.sub(a);
             Vector3f acs = new Vector3f(ac);
@@ -396,12 +498,27 @@ public class ObjModel extends SimpleUnbakedGeometry<ObjModel>
 
         for (int i = 0; i < 4; i++)
         {
-            int[] index = indices[Math.min(i, indices.length - 1)];
-            Vector4f position = new Vector4f(positions.get(index[0]), 1);
-            Vec2 texCoord = index.length >= 2 && texCoords.size() > 0 ? texCoords.get(index[1]) : DEFAULT_COORDS[i];
-            Vector3f norm0 = !needsNormalRecalculation && index.length >= 3 && normals.size() > 0 ? normals.get(index[2]) : faceNormal;
+            int vertex = firstVertex + Math.min(i, vertexCount - 1) * VERTEX_SIZE;
+            int positionIndex = face[vertex], texCoordIndex = face[vertex + 1], normalIndex = face[vertex + 2], colorIndex = face[vertex + 3];
+            Vector4f position = new Vector4f(getPosition(positionIndex), 1);
+            float u, v;
+            if (texCoordIndex >= 0 && texCoords.size() > 0)
+            {
+                u = texCoords.getFloat(texCoordIndex * 2);
+                v = texCoords.getFloat(texCoordIndex * 2 + 1);
+            }
+            else
+            {
+                u = DEFAULT_COORDS[i].x;
+                v = DEFAULT_COORDS[i].y;
+            }
+            Vector3f norm0 = !needsNormalRecalculation && normalIndex >= 0 && normals.size() > 0
+                    ? new Vector3f(normals.getFloat(normalIndex * 3), normals.getFloat(normalIndex * 3 + 1), normals.getFloat(normalIndex * 3 + 2))
+                    : faceNormal;
             Vector3f normal = norm0;
-            Vector4f color = index.length >= 4 && colors.size() > 0 ? colors.get(index[3]) : COLOR_WHITE;
+            Vector4f color = colorIndex >= 0 && colors.size() > 0
+                    ? new Vector4f(colors.getFloat(colorIndex * 4), colors.getFloat(colorIndex * 4 + 1), colors.getFloat(colorIndex * 4 + 2), colors.getFloat(colorIndex * 4 + 3))
+                    : COLOR_WHITE;
             if (hasTransform)
             {
                 normal = new Vector3f(norm0);
@@ -416,8 +533,8 @@ public class ObjModel extends SimpleUnbakedGeometry<ObjModel>
             quadBaker.vertex(position.x(), position.y(), position.z());
             quadBaker.color(tintedColor.x(), tintedColor.y(), tintedColor.z(), tintedColor.w());
             quadBaker.uv(
-                    texture.getU(texCoord.x * 16),
-                    texture.getV((flipV ? 1 - texCoord.y : texCoord.y) * 16)
+                    texture.getU(u * 16),
+                    texture.getV((flipV ? 1 - v : v) * 16)
             );
             quadBaker.uv2(uv2);
             quadBaker.normal(normal.x(), normal.y(), normal.z());
@@ -601,13 +718,19 @@ public class ObjModel extends SimpleUnbakedGeometry<ObjModel>
     {
         @Nullable
         public ObjMaterialLibrary.Material mat;
+        // The library the material was loaded from, for the geometry cache
+        @Nullable
+        public ResourceLocation matLibrary;
         @Nullable
         public String smoothingGroup;
-        public final List<int[][]> faces = Lists.newArrayList();
+        // For every face its vertex count, followed by VERTEX_SIZE indices per vertex
+        public final IntArrayList faces = new IntArrayList();
+        public int faceCount;
 
-        public ModelMesh(@Nullable ObjMaterialLibrary.Material currentMat, @Nullable String currentSmoothingGroup)
+        public ModelMesh(@Nullable ObjMaterialLibrary.Material currentMat, @Nullable ResourceLocation currentMatLibrary, @Nullable String currentSmoothingGroup)
         {
             this.mat = currentMat;
+            this.matLibrary = currentMatLibrary;
             this.smoothingGroup = currentSmoothingGroup;
         }
 
@@ -621,9 +744,10 @@ public class ObjModel extends SimpleUnbakedGeometry<ObjModel>
 
             var rootTransform = owner.getRootTransform();
             var transform = rootTransform.isIdentity() ? modelTransform.getRotation() : modelTransform.getRotation().compose(rootTransform);
-            for (int[][] face : faces)
+            int[] data = faces.elements();
+            for (int offset = 0, end = faces.size(); offset < end; offset += 1 + data[offset] * VERTEX_SIZE)
             {
-                Pair<BakedQuad, Direction> quad = makeQuad(face, tintIndex, colorTint, mat.ambientColor, texture, transform);
+                Pair<BakedQuad, Direction> quad = makeQuad(data, offset, tintIndex, colorTint, mat.ambientColor, texture, transform);
                 if (quad.getRight() == null)
                     modelBuilder.addUnculledFace(quad.getLeft());
                 else
@@ -639,11 +763,12 @@ public class ObjModel extends SimpleUnbakedGeometry<ObjModel>
             int tintIndex = mat.diffuseTintIndex;
             Vector4f colorTint = mat.diffuseColor;
 
-            final List<BakedQuad> quads = new ArrayList<>();
+            final List<BakedQuad> quads = new ArrayList<>(faceCount);
 
-            for (var face : this.faces)
+            int[] data = faces.elements();
+            for (int offset = 0, end = faces.size(); offset < end; offset += 1 + data[offset] * VERTEX_SIZE)
             {
-                var pair = makeQuad(face, tintIndex, colorTint, mat.ambientColor, UnitTextureAtlasSprite.INSTANCE, Transformation.identity());
+                var pair = makeQuad(data, offset, tintIndex, colorTint, mat.ambientColor, UnitTextureAtlasSprite.INSTANCE, Transformation.identity());
                 quads.add(pair.getLeft());
             }
 
@@ -652,6 +777,34 @@ public class ObjModel extends SimpleUnbakedGeometry<ObjModel>
 
             builder.addMesh(texturePath, quads);
         }
+
+        private void write(DataOutput out) throws IOException
+        {
+            writeNullableString(out, matLibrary != null && mat != null ? matLibrary.toString() : null);
+            writeNullableString(out, matLibrary != null && mat != null ? mat.name : null);
+            writeNullableString(out, smoothingGroup);
+            out.writeInt(faceCount);
+            out.writeInt(faces.size());
+            for (int i = 0; i < faces.size(); i++)
+                out.writeInt(faces.getInt(i));
+        }
+
+        private void read(DataInput in) throws IOException
+        {
+            String library = readNullableString(in);
+            String material = readNullableString(in);
+            if (library != null && material != null)
+            {
+                matLibrary = new ResourceLocation(library);
+                mat = ObjLoader.INSTANCE.loadMaterialLibrary(matLibrary).getMaterial(material);
+            }
+            smoothingGroup = readNullableString(in);
+            faceCount = in.readInt();
+            int size = in.readInt();
+            faces.ensureCapacity(size);
+            for (int i = 0; i < size; i++)
+                faces.add(in.readInt());
+        }
     }
 
     public record ModelSettings(@NotNull ResourceLocation modelLocation,
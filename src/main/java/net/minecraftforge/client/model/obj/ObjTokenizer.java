@@ -6,80 +6,351 @@
 package net.minecraftforge.client.model.obj;
 
 import com.google.common.base.Charsets;
-import joptsimple.internal.Strings;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.ArrayList;
+import java.io.Reader;
 import java.util.Arrays;
-import java.util.List;
+import java.util.Objects;
 
 /**
  * A tokenizer for OBJ and MTL files.
  * <p>
  * Joins split lines and ignores comments.
+ * <p>
+ * Lines are read into a reused character buffer, and {@link #nextLine(boolean)} only records where the tokens of
+ * the current line start and end. The tokens can then be compared, parsed as numbers or split into face indices
+ * without creating strings; {@link #readAndSplitLine(boolean)} is kept for callers that want every token as a string.
  */
 public class ObjTokenizer implements AutoCloseable
 {
-    private final BufferedReader lineReader;
+    // Largest mantissa and power of ten that are exactly representable as floats, see parseFloat
+    private static final int MAX_EXACT_MANTISSA = 1 << 24;
+    private static final float[] POWERS_OF_TEN = { 1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f };
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int bufferPos;
+    private int bufferLimit;
+    private boolean skipLineFeed;
+
+    private char[] line = new char[256];
+    private int lineLength;
+    private int[] tokenStarts = new int[16];
+    private int[] tokenEnds = new int[16];
+    private int tokenCount;
 
     public ObjTokenizer(InputStream inputStream)
     {
-        this.lineReader = new BufferedReader(new InputStreamReader(inputStream, Charsets.UTF_8));
+        this.reader = new InputStreamReader(inputStream, Charsets.UTF_8);
     }
 
     @Nullable
     public String[] readAndSplitLine(boolean ignoreEmptyLines) throws IOException
     {
-        //noinspection LoopConditionNotUpdatedInsideLoop
-        do
-        {
-            String currentLine = lineReader.readLine();
-            if (currentLine == null)
-                return null;
+        if (!nextLine(ignoreEmptyLines))
+            return null;
 
-            List<String> lineParts = new ArrayList<>();
+        String[] ret = new String[tokenCount];
+        for (int i = 0; i < tokenCount; i++)
+            ret[i] = token(i);
+        return ret;
+    }
 
-            if (currentLine.startsWith("#"))
-                currentLine = "";
+    /**
+     * Reads the next line, joining split lines and skipping comments.
+     *
+     * @param ignoreEmptyLines Whether to skip lines without any tokens
+     * @return false if the end of the file was reached
+     */
+    public boolean nextLine(boolean ignoreEmptyLines) throws IOException
+    {
+        do
+        {
+            lineLength = 0;
+            tokenCount = 0;
+            if (readRawLine() < 0)
+                return false;
 
-            if (currentLine.length() > 0)
+            if (lineLength > 0 && line[0] != '#')
             {
-
+                int segmentStart = 0;
                 boolean hasContinuation;
                 do
                 {
-                    hasContinuation = currentLine.endsWith("\\");
-                    String tmp = hasContinuation ? currentLine.substring(0, currentLine.length() - 1) : currentLine;
-
-                    Arrays.stream(tmp.split("[\t ]+")).filter(s -> !Strings.isNullOrEmpty(s)).forEach(lineParts::add);
+                    hasContinuation = line[lineLength - 1] == '\\';
+                    split(segmentStart, hasContinuation ? lineLength - 1 : lineLength);
 
                     if (hasContinuation)
                     {
-                        currentLine = lineReader.readLine();
-                        if (currentLine == null)
-                            break;
-
-                        if (currentLine.length() == 0 || currentLine.startsWith("#"))
+                        segmentStart = lineLength;
+                        int read = readRawLine();
+                        if (read <= 0 || line[segmentStart] == '#')
                             break;
                     }
                 } while (hasContinuation);
             }
 
-            if (lineParts.size() > 0)
-                return lineParts.toArray(new String[0]);
+            if (tokenCount > 0)
+                return true;
         }
         while (ignoreEmptyLines);
 
-        return new String[0];
+        return true;
+    }
+
+    /**
+     * @return The number of tokens on the current line.
+     */
+    public int tokenCount()
+    {
+        return tokenCount;
+    }
+
+    /**
+     * @return A new string containing the token at the given index.
+     */
+    public String token(int index)
+    {
+        Objects.checkIndex(index, tokenCount);
+        return new String(line, tokenStarts[index], tokenEnds[index] - tokenStarts[index]);
+    }
+
+    /**
+     * @return All tokens from the given index to the end of the line, separated by single spaces.
+     */
+    public String tokensFrom(int index)
+    {
+        if (index >= tokenCount)
+            return "";
+        StringBuilder builder = new StringBuilder(tokenEnds[tokenCount - 1] - tokenStarts[index]);
+        for (int i = index; i < tokenCount; i++)
+        {
+            if (i > index)
+                builder.append(' ');
+            builder.append(line, tokenStarts[i], tokenEnds[i] - tokenStarts[i]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return Whether the token at the given index equals the given string.
+     */
+    public boolean isToken(int index, String value)
+    {
+        if (index >= tokenCount)
+            return false;
+        int start = tokenStarts[index];
+        int length = tokenEnds[index] - start;
+        if (length != value.length())
+            return false;
+        for (int i = 0; i < length; i++)
+        {
+            if (line[start + i] != value.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Finds which of the given strings the token at the given index equals, without creating a string for the token.
+     *
+     * @return The matching entry of {@code candidates}, or an empty string if none match.
+     */
+    public String matchToken(int index, String[] candidates)
+    {
+        for (String candidate : candidates)
+        {
+            if (isToken(index, candidate))
+                return candidate;
+        }
+        return "";
+    }
+
+    /**
+     * Parses the token at the given index as a float, with the same result as {@link Float#parseFloat(String)}.
+     */
+    public float parseFloat(int index)
+    {
+        Objects.checkIndex(index, tokenCount);
+        int pos = tokenStarts[index];
+        int end = tokenEnds[index];
+        boolean negative = false;
+        if (pos < end && (line[pos] == '-' || line[pos] == '+'))
+            negative = line[pos++] == '-';
+
+        long mantissa = 0;
+        int digits = 0;
+        int decimals = 0;
+        int trailingZeros = 0;
+        boolean fraction = false;
+        for (; pos < end; pos++)
+        {
+            char c = line[pos];
+            if (c == '.' && !fraction)
+            {
+                fraction = true;
+                continue;
+            }
+            if (c < '0' || c > '9' || digits > 17)
+                return Float.parseFloat(token(index));
+            digits++;
+            if (fraction)
+            {
+                decimals++;
+                trailingZeros = c == '0' ? trailingZeros + 1 : 0;
+            }
+            mantissa = mantissa * 10 + (c - '0');
+        }
+        if (digits == 0)
+            return Float.parseFloat(token(index));
+
+        // Trailing zeros of the fraction do not change the value, dropping them keeps more numbers exact
+        for (; trailingZeros > 0; trailingZeros--, decimals--)
+            mantissa /= 10;
+
+        // Both operands are exact, so the division is rounded exactly like parsing the decimal would be
+        if (mantissa > MAX_EXACT_MANTISSA || decimals >= POWERS_OF_TEN.length)
+            return Float.parseFloat(token(index));
+        float value = mantissa / POWERS_OF_TEN[decimals];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses the token at the given index as an int, with the same result as {@link Integer#parseInt(String)}.
+     */
+    public int parseInt(int index)
+    {
+        Objects.checkIndex(index, tokenCount);
+        return parseInt(tokenStarts[index], tokenEnds[index]);
+    }
+
+    /**
+     * Splits the token at the given index on {@code '/'}, and parses every part as an int.
+     * Empty parts are read as 0, and trailing empty parts are not counted.
+     *
+     * @param indices Receives the parsed parts, any parts that do not fit are ignored
+     * @return The number of parts, at most {@code indices.length}
+     */
+    public int parseIndices(int index, int[] indices)
+    {
+        Objects.checkIndex(index, tokenCount);
+        Arrays.fill(indices, 0);
+        int end = tokenEnds[index];
+        int count = 0;
+        int part = 0;
+        int partStart = tokenStarts[index];
+        for (int pos = partStart; pos <= end && part < indices.length; pos++)
+        {
+            if (pos < end && line[pos] != '/')
+                continue;
+            if (pos > partStart)
+            {
+                indices[part] = parseInt(partStart, pos);
+                count = part + 1;
+            }
+            part++;
+            partStart = pos + 1;
+        }
+        return count;
+    }
+
+    private int parseInt(int start, int end)
+    {
+        int pos = start;
+        boolean negative = false;
+        if (pos < end && (line[pos] == '-' || line[pos] == '+'))
+            negative = line[pos++] == '-';
+        if (pos == end || end - pos > 9)
+            return Integer.parseInt(new String(line, start, end - start));
+
+        int value = 0;
+        for (; pos < end; pos++)
+        {
+            char c = line[pos];
+            if (c < '0' || c > '9')
+                return Integer.parseInt(new String(line, start, end - start));
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    private void split(int start, int end)
+    {
+        int pos = start;
+        while (pos < end)
+        {
+            while (pos < end && isSeparator(line[pos]))
+                pos++;
+            if (pos == end)
+                break;
+            int tokenStart = pos;
+            while (pos < end && !isSeparator(line[pos]))
+                pos++;
+
+            if (tokenCount == tokenStarts.length)
+            {
+                tokenStarts = Arrays.copyOf(tokenStarts, tokenCount * 2);
+                tokenEnds = Arrays.copyOf(tokenEnds, tokenCount * 2);
+            }
+            tokenStarts[tokenCount] = tokenStart;
+            tokenEnds[tokenCount] = pos;
+            tokenCount++;
+        }
+    }
+
+    private static boolean isSeparator(char c)
+    {
+        return c == ' ' || c == '\t';
+    }
+
+    /**
+     * Appends the next line to the line buffer, line terminators are handled like {@link java.io.BufferedReader#readLine()}.
+     *
+     * @return The number of characters appended, or -1 if the end of the file was reached
+     */
+    private int readRawLine() throws IOException
+    {
+        int start = lineLength;
+        boolean any = false;
+        while (true)
+        {
+            if (bufferPos == bufferLimit)
+            {
+                bufferLimit = reader.read(buffer, 0, buffer.length);
+                bufferPos = 0;
+                if (bufferLimit <= 0)
+                {
+                    bufferLimit = 0;
+                    return any ? lineLength - start : -1;
+                }
+            }
+
+            char c = buffer[bufferPos++];
+            if (skipLineFeed)
+            {
+                skipLineFeed = false;
+                if (c == '\n')
+                    continue;
+            }
+            any = true;
+            if (c == '\n' || c == '\r')
+            {
+                skipLineFeed = c == '\r';
+                return lineLength - start;
+            }
+
+            if (lineLength == line.length)
+                line = Arrays.copyOf(line, lineLength * 2);
+            line[lineLength++] = c;
+        }
     }
 
     @Override
     public void close() throws IOException
     {
-        lineReader.close();
+        reader.close();
     }
 }
@@ -14,6 +14,9 @@ import org.apache.logging.log4j.LogManager;
 import net.minecraftforge.common.ForgeConfigSpec.BooleanValue;
 import net.minecraftforge.common.ForgeConfigSpec.DoubleValue;
 import net.minecraftforge.common.ForgeConfigSpec.ConfigValue;
+import net.minecraftforge.common.ForgeConfigSpec.EnumValue;
+import net.minecraftforge.common.ForgeConfigSpec.IntValue;
+import net.minecraftforge.server.timings.TickMetrics;
 
 public class ForgeConfig {
     public static class Server {
@@ -30,6 +33,11 @@ public class ForgeConfig {
 
         public final BooleanValue advertiseDedicatedServerToLan;
 
+        public final BooleanValue tickMetricsEnabled;
+        public final IntValue tickMetricsInterval;
+        public final IntValue tickMetricsSampleRate;
+        public final EnumValue<TickMetrics.Format> tickMetricsFormat;
+
         Server(ForgeConfigSpec.Builder builder) {
             builder.comment("Server configuration settings")
                    .push("server");
@@ -74,6 +82,26 @@ public class ForgeConfig {
                     .translation("forge.configgui.advertiseDedicatedServerToLan")
                     .define("advertiseDedicatedServerToLan", true);
 
+            tickMetricsEnabled = builder
+                    .comment("Set this to true to continuously collect low-overhead tick metrics and write them to the logs/tick-metrics folder.")
+                    .translation("forge.configgui.tickMetricsEnabled")
+                    .define("tickMetricsEnabled", false);
+
+            tickMetricsInterval = builder
+                    .comment("How often, in seconds, tick metrics are written out.")
+                    .translation("forge.configgui.tickMetricsInterval")
+                    .defineInRange("tickMetricsInterval", 60, 5, 3600);
+
+            tickMetricsSampleRate = builder
+                    .comment("Only one in this many block entity and entity ticks is timed for the tick metrics. Lower values are more accurate but cost more.")
+                    .translation("forge.configgui.tickMetricsSampleRate")
+                    .defineInRange("tickMetricsSampleRate", 16, 1, 1024);
+
+            tickMetricsFormat = builder
+                    .comment("The format tick metrics are written in. JSONL appends one line per interval to a daily file, OPENMETRICS replaces a single text exposition file.")
+                    .translation("forge.configgui.tickMetricsFormat")
+                    .defineEnum("tickMetricsFormat", TickMetrics.Format.JSONL);
+
             builder.pop();
         }
     }
@@ -103,6 +131,8 @@ public class ForgeConfig {
 
         public final BooleanValue useCombinedDepthStencilAttachment;
 
+        public final BooleanValue cacheObjModels;
+
         @Deprecated(since = "1.20.1", forRemoval = true) // Config option ignored.
         public final BooleanValue compressLanIPv6Addresses;
 
@@ -132,6 +162,11 @@ public class ForgeConfig {
                     .translation("forge.configgui.useCombinedDepthStencilAttachment")
                     .define("useCombinedDepthStencilAttachment", false);
 
+            cacheObjModels = builder
+                    .comment("Set to true to cache parsed OBJ models on disk, so unchanged models load faster on later resource reloads.")
+                    .translation("forge.configgui.cacheObjModels")
+                    .define("cacheObjModels", false);
+
             compressLanIPv6Addresses = builder
                     .comment("[Deprecated for Removal] IPv6 addresses will always be compressed")
                     .translation("forge.configgui.compressLanIPv6Addresses")
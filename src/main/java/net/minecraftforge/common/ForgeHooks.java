@@ -155,6 +155,8 @@ public class ForgeHooks
     @SuppressWarnings("unused")
     private static final Marker FORGEHOOKS = MarkerManager.getMarker("FORGEHOOKS");
     private static final Marker WORLDPERSISTENCE = MarkerManager.getMarker("WP");
+    private static final EventCounter LIVING_TICK = EventCounter.of(LivingTickEvent.class);
+    private static final EventCounter LIVING_BREATHE = EventCounter.of(LivingBreatheEvent.class);
 
     public static boolean canContinueUsing(@NotNull ItemStack from, @NotNull ItemStack to)
     {
@@ -193,7 +195,7 @@ public class ForgeHooks
 
     public static boolean onLivingTick(LivingEntity entity)
     {
-        return MinecraftForge.EVENT_BUS.post(new LivingTickEvent(entity));
+        return LIVING_TICK.shouldPost() && MinecraftForge.EVENT_BUS.post(new LivingTickEvent(entity));
     }
 
     public static boolean onLivingAttack(LivingEntity entity, DamageSource src, float amount)
@@ -1539,15 +1541,21 @@ public class ForgeHooks
             canBreathe = true;
             refillAirAmount = 0;
         }
-        LivingBreatheEvent breatheEvent = new LivingBreatheEvent(entity, canBreathe, consumeAirAmount, refillAirAmount);
-        MinecraftForge.EVENT_BUS.post(breatheEvent);
-        if (breatheEvent.canBreathe())
+        if (LIVING_BREATHE.shouldPost())
         {
-            entity.setAirSupply(Math.min(entity.getAirSupply() + breatheEvent.getRefillAirAmount(), entity.getMaxAirSupply()));
+            LivingBreatheEvent breatheEvent = new LivingBreatheEvent(entity, canBreathe, consumeAirAmount, refillAirAmount);
+            MinecraftForge.EVENT_BUS.post(breatheEvent);
+            canBreathe = breatheEvent.canBreathe();
+            consumeAirAmount = breatheEvent.getConsumeAirAmount();
+            refillAirAmount = breatheEvent.getRefillAirAmount();
+        }
+        if (canBreathe)
+        {
+            entity.setAirSupply(Math.min(entity.getAirSupply() + refillAirAmount, entity.getMaxAirSupply()));
         }
         else
         {
-            entity.setAirSupply(entity.getAirSupply() - breatheEvent.getConsumeAirAmount());
+            entity.setAirSupply(entity.getAirSupply() - consumeAirAmount);
         }
 
         if (entity.getAirSupply() <= 0)
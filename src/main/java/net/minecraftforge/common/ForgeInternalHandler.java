@@ -12,6 +12,8 @@ import net.minecraft.world.entity.Mob;
 import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.common.capabilities.BlockCapabilityCache;
+import net.minecraftforge.common.crafting.RecipeCandidateIndex;
 import net.minecraftforge.common.loot.LootModifierManager;
 import net.minecraftforge.common.util.FakePlayerFactory;
 import net.minecraftforge.common.util.LogicalSidedProvider;
@@ -28,8 +30,11 @@ import net.minecraftforge.event.level.LevelEvent;
 import net.minecraftforge.eventbus.api.EventPriority;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.LogicalSide;
+import net.minecraftforge.network.NetworkDirection;
+import net.minecraftforge.network.simple.MessageBatcher;
 import net.minecraftforge.server.command.ConfigCommand;
 import net.minecraftforge.server.command.ForgeCommand;
+import net.minecraftforge.server.timings.TickMetrics;
 import xyz.bluspring.kilt.injections.world.entity.MobInjection;
 
 public class ForgeInternalHandler
@@ -62,12 +67,25 @@ public class ForgeInternalHandler
     {
         if (event.getLevel() instanceof ServerLevel)
             FakePlayerFactory.unloadLevel((ServerLevel) event.getLevel());
+        BlockCapabilityCache.onLevelUnload(event.getLevel());
     }
 
     @SubscribeEvent
     public void onServerTick(ServerTickEvent event)
     {
         WorldWorkerManager.tick(event.phase == TickEvent.Phase.START);
+        if (event.phase == TickEvent.Phase.END)
+        {
+            TickMetrics.tick(event.getServer());
+            MessageBatcher.flushAll(NetworkDirection.PLAY_TO_CLIENT);
+        }
+    }
+
+    @SubscribeEvent
+    public void onClientTick(ClientTickEvent event)
+    {
+        if (event.phase == TickEvent.Phase.END)
+            MessageBatcher.flushAll(NetworkDirection.PLAY_TO_SERVER);
     }
 
     @SubscribeEvent
@@ -77,11 +95,19 @@ public class ForgeInternalHandler
         //    CloudRenderer.updateCloudSettings();
     }
 
+    @SubscribeEvent
+    public void onChunkLoad(ChunkEvent.Load event)
+    {
+        if (!event.getLevel().isClientSide())
+            TickMetrics.onChunkLoad(event.isNewChunk());
+    }
+
     @SubscribeEvent
     public void onChunkUnload(ChunkEvent.Unload event)
     {
         if (!event.getLevel().isClientSide())
             FarmlandWaterManager.removeTickets(event.getChunk());
+        BlockCapabilityCache.onChunkUnload(event.getLevel(), event.getChunk().getPos());
     }
 
     /*
@@ -102,6 +128,7 @@ public class ForgeInternalHandler
     @SubscribeEvent
     public void tagsUpdated(TagsUpdatedEvent event)
     {
+        RecipeCandidateIndex.invalidateAll();
         if (event.shouldUpdateStaticData())
         {
             ForgeHooks.updateBurns();
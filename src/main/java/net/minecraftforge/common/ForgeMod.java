@@ -68,6 +68,7 @@ import net.minecraftforge.common.world.NoneBiomeModifier;
 import net.minecraftforge.common.world.NoneStructureModifier;
 import net.minecraftforge.common.world.StructureModifier;
 import net.minecraftforge.data.event.GatherDataEvent;
+import net.minecraftforge.event.server.ServerStartedEvent;
 import net.minecraftforge.event.server.ServerStoppingEvent;
 import net.minecraftforge.eventbus.api.IEventBus;
 import net.minecraftforge.fluids.FluidType;
@@ -85,6 +86,7 @@ import net.minecraftforge.network.NetworkConstants;
 import net.minecraftforge.network.filters.VanillaPacketSplitter;
 import net.minecraftforge.registries.*;
 import net.minecraftforge.registries.holdersets.*;
+import net.minecraftforge.server.command.ChunkGenWorker;
 import net.minecraftforge.server.command.EnumArgument;
 import net.minecraftforge.server.command.ModIdArgument;
 import net.minecraftforge.server.permission.events.PermissionGatherEvent;
@@ -445,6 +447,7 @@ public class ForgeMod
         STRUCTURE_MODIFIER_SERIALIZERS.register(modEventBus);
         HOLDER_SET_TYPES.register(modEventBus);
         VANILLA_FLUID_TYPES.register(modEventBus);
+        MinecraftForge.EVENT_BUS.addListener(this::serverStarted);
         MinecraftForge.EVENT_BUS.addListener(this::serverStopping);
         MinecraftForge.EVENT_BUS.addListener(this::missingSoundMapping);
         ModLoadingContext.get().registerConfig(ModConfig.Type.CLIENT, ForgeConfig.clientSpec);
@@ -482,14 +485,21 @@ public class ForgeMod
     {
     }
 
+    public void serverStarted(ServerStartedEvent evt)
+    {
+        ChunkGenWorker.resumeAll(evt.getServer());
+    }
+
     public void serverStopping(ServerStoppingEvent evt)
     {
+        ChunkGenWorker.stopAll();
         WorldWorkerManager.clear();
     }
 
     public void mappingChanged(IdMappingEvent evt)
     {
         IngredientInjection.invalidateAll();
+        RecipeCandidateIndex.invalidateAll();
     }
 
     public void gatherData(GatherDataEvent event)
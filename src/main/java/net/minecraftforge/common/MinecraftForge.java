@@ -7,6 +7,8 @@ package net.minecraftforge.common;
 
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.client.ClientCommandHandler;
+import net.minecraftforge.event.EventCounter;
+import net.minecraftforge.eventbus.api.Event;
 import net.minecraftforge.eventbus.api.BusBuilder;
 import net.minecraftforge.eventbus.api.IEventBus;
 import net.minecraftforge.fml.loading.FMLEnvironment;
@@ -33,6 +35,15 @@ public class MinecraftForge
     private static final Logger LOGGER = LogManager.getLogger();
     private static final Marker FORGE = MarkerManager.getMarker("FORGE");
 
+    /**
+     * Checks whether posting an event of the given type on {@link #EVENT_BUS} would reach any listener, including the
+     * listeners of its super classes. Hooks firing an event very frequently can use this to skip creating it.
+     */
+    public static boolean hasListeners(Class<? extends Event> eventType)
+    {
+        return EventCounter.hasListeners(eventType);
+    }
+
    /**
     * Method invoked by FML before any other mods are loaded.
     */
@@ -7,67 +7,177 @@ package net.minecraftforge.common;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+import com.google.common.collect.ImmutableList;
+import net.minecraft.Util;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Runs background {@link IWorker workers} on the server thread, in whatever time is left of each tick.
+ * <p>
+ * The budget of a tick is what remains of the 50ms tick after the server finished its own work, minus a small safety
+ * margin, so a tick that is already late runs no workers at all. The budget is split between workers by
+ * {@link IWorker#getPriority() priority}, and a single worker never gets more than its {@link IWorker#getMaxNanosPerTick() quota}.
+ * Only workers that opt into a {@link IWorker#getMinNanosPerTick() minimum} run past the end of the tick.
+ * Time a worker does not use is handed to the next one. Work that does not need the server thread can be run with
+ * {@link #submitAsync(Supplier, Consumer)}, whose results are applied on the server thread within the same budget.
+ * <p>
+ * Everything except {@link #addWorker(IWorker)} and {@link #submitAsync(Supplier, Consumer)} must be called on the server thread.
+ */
 public class WorldWorkerManager
 {
-    private static List<IWorker> workers = new ArrayList<IWorker>();
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long SAFETY_MARGIN_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private static final Queue<IWorker> pending = new ConcurrentLinkedQueue<>();
+    private static final Queue<Runnable> asyncResults = new ConcurrentLinkedQueue<>();
+    // Sorted by descending priority, workers of equal priority in the order they were added
+    private static final List<WorkerEntry> workers = new ArrayList<>();
     private static long startTime = -1;
-    private static int index = 0;
+    private static int rotation = 0;
 
     public static void tick(boolean start)
     {
         if (start)
         {
-            startTime = System.currentTimeMillis();
+            startTime = System.nanoTime();
+            return;
+        }
+
+        for (IWorker added; (added = pending.poll()) != null; )
+            insert(new WorkerEntry(added));
+
+        if (startTime < 0)
             return;
+        long now = System.nanoTime();
+        long deadline = startTime + TICK_NANOS - SAFETY_MARGIN_NANOS;
+
+        while (now < deadline)
+        {
+            Runnable result = asyncResults.poll();
+            if (result == null)
+                break;
+            runAsyncResult(result);
+            now = System.nanoTime();
         }
 
-        index = 0;
-        IWorker task = getNext();
-        if (task == null)
+        if (workers.isEmpty())
             return;
 
-        long time = 50 - (System.currentTimeMillis() - startTime);
-        if (time < 10)
-            time = 10; //If ticks are lagging, give us at least 10ms to do something.
-        time += System.currentTimeMillis();
+        long totalWeight = 0;
+        for (WorkerEntry entry : workers)
+            totalWeight += entry.weight();
 
-        while (System.currentTimeMillis() < time && task != null)
+        // Higher priorities first, equal priorities take turns being first.
+        rotation = (rotation + 1) & Integer.MAX_VALUE;
+        for (int groupStart = 0, groupEnd; groupStart < workers.size(); groupStart = groupEnd)
         {
-            boolean again = task.doWork();
+            int priority = workers.get(groupStart).priority;
+            groupEnd = groupStart + 1;
+            while (groupEnd < workers.size() && workers.get(groupEnd).priority == priority)
+                groupEnd++;
 
-            if (!task.hasWork())
-            {
-                remove(task);
-                task = getNext();
-            }
-            else if (!again)
+            int size = groupEnd - groupStart;
+            for (int i = 0; i < size; i++)
             {
-                task = getNext();
+                WorkerEntry entry = workers.get(groupStart + (rotation + i) % size);
+                now = System.nanoTime();
+                long remaining = deadline - now;
+                long floor = Math.min(entry.worker.getMinNanosPerTick(), entry.worker.getMaxNanosPerTick());
+                if (remaining <= 0 && floor <= 0)
+                {
+                    entry.skipped++;
+                    continue;
+                }
+
+                long slice = remaining <= 0 ? 0 : Math.min(remaining * entry.weight() / Math.max(totalWeight, 1), entry.worker.getMaxNanosPerTick());
+                totalWeight -= entry.weight();
+                long end = now + Math.max(slice, floor);
+                entry.run(end);
             }
         }
+
+        workers.removeIf(entry -> {
+            if (entry.worker.hasWork())
+                return false;
+            entry.worker.onRemoved();
+            return true;
+        });
+    }
+
+    // Keeps the workers sorted, behind the ones of the same priority
+    private static void insert(WorkerEntry entry)
+    {
+        int index = workers.size();
+        while (index > 0 && workers.get(index - 1).priority < entry.priority)
+            index--;
+        workers.add(index, entry);
     }
 
-    public static synchronized void addWorker(IWorker worker)
+    /**
+     * Adds a worker, it will start running on the next server tick. Can be called from any thread.
+     */
+    public static void addWorker(IWorker worker)
     {
-        workers.add(worker);
+        pending.add(worker);
     }
 
-    private static synchronized IWorker getNext()
+    /**
+     * Runs a task off the server thread, and hands its result to the given consumer on the server thread
+     * once there is time left in a tick. Can be called from any thread.
+     *
+     * @return A future completing with the task's result, before the consumer is called.
+     */
+    public static <T> CompletableFuture<T> submitAsync(Supplier<T> task, Consumer<T> onServerThread)
     {
-        return workers.size() > index ? workers.get(index++) : null;
+        CompletableFuture<T> ret = CompletableFuture.supplyAsync(task, Util.backgroundExecutor());
+        ret.whenComplete((value, error) -> {
+            if (error == null)
+                asyncResults.add(() -> onServerThread.accept(value));
+            else
+                LOGGER.error("Asynchronous world worker task failed", error);
+        });
+        return ret;
     }
 
-    private static synchronized void remove(IWorker worker)
+    /**
+     * @return Statistics about every worker currently registered, in no particular order.
+     */
+    public static List<WorkerStatistics> getStatistics()
     {
-        workers.remove(worker);
-        index--;
+        ImmutableList.Builder<WorkerStatistics> builder = ImmutableList.builder();
+        for (WorkerEntry entry : workers)
+            builder.add(new WorkerStatistics(entry.worker.getName(), entry.priority, entry.totalNanos, entry.lastTickNanos, entry.calls, entry.ticks, entry.skipped));
+        return builder.build();
     }
 
     //Internal only, used to clear everything when the server shuts down.
-    public static synchronized void clear()
+    public static void clear()
     {
+        pending.clear();
+        asyncResults.clear();
         workers.clear();
+        startTime = -1;
+    }
+
+    private static void runAsyncResult(Runnable result)
+    {
+        try
+        {
+            result.run();
+        }
+        catch (RuntimeException e)
+        {
+            LOGGER.error("Failed to apply result of asynchronous world worker task", e);
+        }
     }
 
     public static interface IWorker
@@ -79,5 +189,101 @@ public class WorldWorkerManager
          * Returning false will skip calling this worker until next tick.
          */
         boolean doWork();
+
+        /**
+         * Workers with a higher priority run first, and get a larger share of the tick in proportion to {@code priority + 1}.
+         * Negative priorities are treated as 0.
+         */
+        default int getPriority()
+        {
+            return 0;
+        }
+
+        /**
+         * @return The most time, in nanoseconds, this worker may use in a single tick.
+         */
+        default long getMaxNanosPerTick()
+        {
+            return Long.MAX_VALUE;
+        }
+
+        /**
+         * @return The time, in nanoseconds, this worker runs every tick even if the tick is out of time. Zero, the default,
+         * means the worker only uses time that is left in the tick. Anything else lets the worker push the tick past 50ms
+         * while the server is lagging, and should only be used for work that must keep making progress.
+         */
+        default long getMinNanosPerTick()
+        {
+            return 0;
+        }
+
+        /**
+         * @return The name shown in worker statistics.
+         */
+        default String getName()
+        {
+            return getClass().getName();
+        }
+
+        /**
+         * Called on the server thread after the worker was removed because it ran out of work.
+         */
+        default void onRemoved()
+        {
+        }
+    }
+
+    /**
+     * A snapshot of a worker's time usage.
+     *
+     * @param totalNanos    Time spent in the worker since it was added
+     * @param lastTickNanos Time spent in the worker during the last tick it ran
+     * @param calls         Number of {@link IWorker#doWork()} calls
+     * @param ticks         Number of ticks the worker ran in
+     * @param skipped       Number of ticks the worker was skipped in because the tick was out of time
+     */
+    public record WorkerStatistics(String name, int priority, long totalNanos, long lastTickNanos, long calls, long ticks, long skipped) {}
+
+    private static final class WorkerEntry
+    {
+        private final IWorker worker;
+        private final int priority;
+        private long totalNanos;
+        private long lastTickNanos;
+        private long calls;
+        private long ticks;
+        private long skipped;
+
+        private WorkerEntry(IWorker worker)
+        {
+            this.worker = worker;
+            this.priority = Math.max(worker.getPriority(), 0);
+        }
+
+        private long weight()
+        {
+            return priority + 1L;
+        }
+
+        private void run(long end)
+        {
+            long begin = System.nanoTime();
+            long now = begin;
+            boolean again = true;
+            // Always do at least one call when there is any budget, so tiny slices still make progress.
+            do
+            {
+                if (!worker.hasWork())
+                    break;
+                again = worker.doWork();
+                calls++;
+                now = System.nanoTime();
+            }
+            while (again && now < end);
+
+            lastTickNanos = now - begin;
+            totalNanos += lastTickNanos;
+            ticks++;
+        }
     }
 }
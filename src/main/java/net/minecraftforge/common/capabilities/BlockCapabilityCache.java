@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) Forge Development LLC and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.minecraftforge.common.capabilities;
+
+import com.google.common.collect.MapMaker;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.LevelAccessor;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraftforge.common.util.LazyOptional;
+import net.minecraftforge.common.util.NonNullConsumer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+/**
+ * A per-level cache of block entity capabilities, keyed by position, side and {@link Capability}.
+ * <p>
+ * Only present results are cached. An entry is dropped when the cached {@link LazyOptional} is
+ * {@link LazyOptional#invalidate() invalidated}, when the block entity it came from is removed,
+ * or when the chunk holding it unloads. Callers that look up the same neighbour every tick,
+ * such as hoppers and pipes, should prefer this over calling {@link BlockEntity#getCapability} directly.
+ * <p>
+ * The cache is only used from the level's own thread, which is the server thread for server levels and the thread
+ * that created the cache otherwise. Lookups from any other thread fall through to an uncached query.
+ */
+public final class BlockCapabilityCache
+{
+    private static final Map<LevelAccessor, BlockCapabilityCache> CACHES = new MapMaker().weakKeys().makeMap();
+
+    /**
+     * @return the capability cache for the given level, created on first use.
+     */
+    public static BlockCapabilityCache of(LevelAccessor level)
+    {
+        return CACHES.computeIfAbsent(level, BlockCapabilityCache::new);
+    }
+
+    /**
+     * Shortcut for {@code of(level).getCapability(pos, side, cap)}.
+     */
+    @NotNull
+    public static <T> LazyOptional<T> getCapability(LevelAccessor level, BlockPos pos, @Nullable Direction side, Capability<T> cap)
+    {
+        return of(level).getCapability(pos, side, cap);
+    }
+
+    // INTERNAL
+    public static void onLevelUnload(LevelAccessor level)
+    {
+        BlockCapabilityCache cache = CACHES.remove(level);
+        if (cache != null)
+            cache.clear();
+    }
+
+    // INTERNAL
+    public static void onChunkUnload(LevelAccessor level, ChunkPos pos)
+    {
+        BlockCapabilityCache cache = CACHES.get(level);
+        if (cache != null)
+            cache.invalidateChunk(pos);
+    }
+
+    private final LevelAccessor level;
+    private final Thread owner;
+    // Chunk key -> block pos key -> linked entries for that position
+    private final Long2ObjectMap<Long2ObjectMap<Entry>> chunks = new Long2ObjectOpenHashMap<>();
+
+    private BlockCapabilityCache(LevelAccessor level)
+    {
+        this.level = level;
+        this.owner = level instanceof ServerLevel serverLevel ? serverLevel.getServer().getRunningThread() : Thread.currentThread();
+    }
+
+    /**
+     * @return whether lookups from the current thread use this cache.
+     */
+    public boolean isOwnerThread()
+    {
+        return Thread.currentThread() == owner;
+    }
+
+    /**
+     * Retrieves the capability of the block entity at the given position, reusing a previously resolved
+     * {@link LazyOptional} if it is still valid.
+     *
+     * @return the capability, or {@link LazyOptional#empty()} if there is no block entity or it does not expose it.
+     */
+    @NotNull
+    public <T> LazyOptional<T> getCapability(BlockPos pos, @Nullable Direction side, Capability<T> cap)
+    {
+        if (Thread.currentThread() != owner)
+        {
+            BlockEntity be = lookupBlockEntity(pos);
+            return be == null ? LazyOptional.empty() : be.getCapability(cap, side);
+        }
+
+        Entry entry = find(pos.asLong(), side, cap);
+        if (entry != null)
+            return entry.optional.cast();
+
+        BlockEntity be = lookupBlockEntity(pos);
+        if (be == null)
+            return LazyOptional.empty();
+
+        LazyOptional<T> ret = be.getCapability(cap, side);
+        if (ret.isPresent())
+            put(pos, side, cap, ret, be);
+        return ret;
+    }
+
+    /**
+     * @return the block entity a live cache entry at this position was resolved from, or null if there is none.
+     */
+    @Nullable
+    public BlockEntity getCachedBlockEntity(BlockPos pos)
+    {
+        if (Thread.currentThread() != owner)
+            return null;
+        Long2ObjectMap<Entry> positions = chunks.get(ChunkPos.asLong(SectionPos.blockToSectionCoord(pos.getX()), SectionPos.blockToSectionCoord(pos.getZ())));
+        if (positions == null)
+            return null;
+        for (Entry e = positions.get(pos.asLong()); e != null; e = e.next)
+        {
+            if (!e.blockEntity.isRemoved())
+                return e.blockEntity;
+        }
+        return null;
+    }
+
+    /**
+     * Drops every cached capability in the given chunk.
+     */
+    public void invalidateChunk(ChunkPos pos)
+    {
+        Long2ObjectMap<Entry> positions = chunks.remove(pos.toLong());
+        if (positions != null)
+            unlistenAll(positions);
+    }
+
+    /**
+     * Drops every cached capability in this level.
+     */
+    public void clear()
+    {
+        chunks.values().forEach(BlockCapabilityCache::unlistenAll);
+        chunks.clear();
+    }
+
+    private static void unlistenAll(Long2ObjectMap<Entry> positions)
+    {
+        for (Entry head : positions.values())
+        {
+            for (Entry e = head; e != null; e = e.next)
+                e.unlisten();
+        }
+    }
+
+    @Nullable
+    private BlockEntity lookupBlockEntity(BlockPos pos)
+    {
+        return level.getBlockState(pos).hasBlockEntity() ? level.getBlockEntity(pos) : null;
+    }
+
+    @Nullable
+    private Entry find(long pos, @Nullable Direction side, Capability<?> cap)
+    {
+        Long2ObjectMap<Entry> positions = chunks.get(chunkKey(pos));
+        if (positions == null)
+            return null;
+
+        Entry head = positions.get(pos);
+        for (Entry e = head; e != null; e = e.next)
+        {
+            if (e.cap == cap && e.side == side)
+            {
+                if (!e.blockEntity.isRemoved() && e.optional.isPresent())
+                    return e;
+                remove(e);
+                e.unlisten();
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private void put(BlockPos pos, @Nullable Direction side, Capability<?> cap, LazyOptional<?> optional, BlockEntity be)
+    {
+        long key = pos.asLong();
+        Long2ObjectMap<Entry> positions = chunks.computeIfAbsent(chunkKey(key), k -> new Long2ObjectOpenHashMap<>());
+        Entry entry = new Entry(key, side, cap, optional, be);
+        entry.next = positions.get(key);
+        positions.put(key, entry);
+        entry.listen();
+    }
+
+    private void remove(Entry entry)
+    {
+        long chunk = chunkKey(entry.pos);
+        Long2ObjectMap<Entry> positions = chunks.get(chunk);
+        if (positions == null)
+            return;
+
+        Entry head = positions.get(entry.pos);
+        if (head == entry)
+        {
+            if (entry.next == null)
+            {
+                positions.remove(entry.pos);
+                if (positions.isEmpty())
+                    chunks.remove(chunk);
+            }
+            else
+            {
+                positions.put(entry.pos, entry.next);
+            }
+            return;
+        }
+
+        for (Entry e = head; e != null; e = e.next)
+        {
+            if (e.next == entry)
+            {
+                e.next = entry.next;
+                return;
+            }
+        }
+    }
+
+    private static long chunkKey(long pos)
+    {
+        return ChunkPos.asLong(SectionPos.blockToSectionCoord(BlockPos.getX(pos)), SectionPos.blockToSectionCoord(BlockPos.getZ(pos)));
+    }
+
+    private final class Entry implements NonNullConsumer<LazyOptional<Object>>
+    {
+        private final long pos;
+        @Nullable
+        private final Direction side;
+        private final Capability<?> cap;
+        private final LazyOptional<?> optional;
+        private final BlockEntity blockEntity;
+        @Nullable
+        private Entry next;
+
+        private Entry(long pos, @Nullable Direction side, Capability<?> cap, LazyOptional<?> optional, BlockEntity blockEntity)
+        {
+            this.pos = pos;
+            this.side = side;
+            this.cap = cap;
+            this.optional = optional;
+            this.blockEntity = blockEntity;
+        }
+
+        private void listen()
+        {
+            optional.<Object>cast().addListener(this);
+        }
+
+        // Called when the entry is dropped for any other reason than the optional being invalidated, so long-lived optionals do not keep old entries
+        private void unlisten()
+        {
+            optional.<Object>cast().removeListener(this);
+        }
+
+        @Override
+        public void accept(@NotNull LazyOptional<Object> invalidated)
+        {
+            // Invalidation may come from any thread, only the owner touches the maps.
+            // Entries left behind are also rejected on lookup since the optional is no longer present.
+            if (Thread.currentThread() == owner)
+                remove(this);
+        }
+    }
+}
@@ -59,11 +59,14 @@ public class Capability<T>
 
     // INTERNAL
     private final String name;
+    // Dense index assigned by the CapabilityManager in creation order, used to build lookup tables
+    final int id;
     List<Consumer<Capability<T>>> listeners = new ArrayList<>();
 
-    Capability(String name)
+    Capability(String name, int id)
     {
         this.name = name;
+        this.id = id;
     }
 
     void onRegister()
@@ -7,6 +7,9 @@ package net.minecraftforge.common.capabilities;
 
 import javax.annotation.ParametersAreNonnullByDefault;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -18,6 +21,7 @@ import net.minecraft.nbt.Tag;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.core.Direction;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraftforge.common.util.INBTComparable;
 import net.minecraftforge.common.util.INBTSerializable;
 import net.minecraftforge.common.util.LazyOptional;
 import org.jetbrains.annotations.Nullable;
@@ -30,6 +34,11 @@ import org.jetbrains.annotations.Nullable;
  * our handlers using normal if statements.
  *
  * Internally the handlers are baked into arrays for fast iteration.
+ * Providers implementing {@link IDeclaredCapabilityProvider} are additionally
+ * indexed by capability, so a lookup only visits the providers that can answer.
+ * That index is a table addressed by the capability's id, so finding the
+ * candidates of a capability is a single array read, and a capability no
+ * provider can answer does not call any declared provider.
  * The ResourceLocations will be used for the NBT Key when serializing.
  */
 @ParametersAreNonnullByDefault
@@ -39,6 +48,12 @@ public final class CapabilityDispatcher implements INBTSerializable<CompoundTag>
     private ICapabilityProvider[] caps;
     private INBTSerializable<Tag>[] writers;
     private String[] names;
+    // Per-capability candidates in dispatch order, indexed by capability id minus indexBase. Null when no provider declared its capabilities.
+    @Nullable
+    private ICapabilityProvider[][] indexedCaps;
+    private int indexBase;
+    // Candidates for capabilities no provider declared, only the providers without a declaration.
+    private ICapabilityProvider[] undeclaredCaps;
     private final List<Runnable> listeners;
 
     public CapabilityDispatcher(Map<ResourceLocation, ICapabilityProvider> list, List<Runnable> listeners)
@@ -78,13 +93,84 @@ public final class CapabilityDispatcher implements INBTSerializable<CompoundTag>
         caps = lstCaps.toArray(new ICapabilityProvider[lstCaps.size()]);
         writers = lstWriters.toArray(new INBTSerializable[lstWriters.size()]);
         names = lstNames.toArray(new String[lstNames.size()]);
+        buildIndex();
     }
 
+    private void buildIndex()
+    {
+        Map<Capability<?>, List<ICapabilityProvider>> declared = new IdentityHashMap<>();
+        List<ICapabilityProvider> undeclared = Lists.newArrayList();
+        // Providers are only asked once, the second pass reuses their answer
+        @SuppressWarnings("unchecked")
+        Collection<Capability<?>>[] declaredBy = new Collection[caps.length];
+        for (int i = 0; i < caps.length; i++)
+        {
+            ICapabilityProvider prov = caps[i];
+            if (prov instanceof IDeclaredCapabilityProvider decl)
+            {
+                declaredBy[i] = decl.getDeclaredCapabilities();
+                for (Capability<?> cap : declaredBy[i])
+                    declared.putIfAbsent(cap, Lists.newArrayList());
+            }
+            else
+            {
+                undeclared.add(prov);
+            }
+        }
+
+        undeclaredCaps = undeclared.size() == caps.length ? caps : undeclared.toArray(new ICapabilityProvider[undeclared.size()]);
+        if (declared.isEmpty())
+        {
+            indexedCaps = null;
+            return;
+        }
+
+        // Keep the original provider order for every capability so the first present result still wins.
+        for (int i = 0; i < caps.length; i++)
+        {
+            ICapabilityProvider prov = caps[i];
+            if (declaredBy[i] != null)
+            {
+                for (Capability<?> cap : declaredBy[i])
+                {
+                    List<ICapabilityProvider> lst = declared.get(cap);
+                    if (!lst.contains(prov))
+                        lst.add(prov);
+                }
+            }
+            else
+            {
+                declared.values().forEach(lst -> lst.add(prov));
+            }
+        }
+
+        // Only span the declared ids, dispatchers are created for every entity and block entity
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (Capability<?> cap : declared.keySet())
+        {
+            min = Math.min(min, cap.id);
+            max = Math.max(max, cap.id);
+        }
+        indexBase = min;
+        indexedCaps = new ICapabilityProvider[max - min + 1][];
+        declared.forEach((cap, lst) -> indexedCaps[cap.id - indexBase] = lst.toArray(new ICapabilityProvider[lst.size()]));
+    }
+
+    private ICapabilityProvider[] getCandidates(Capability<?> cap)
+    {
+        ICapabilityProvider[][] index = indexedCaps;
+        int slot = cap.id - indexBase;
+        if (index == null || slot < 0 || slot >= index.length)
+            return undeclaredCaps;
+        ICapabilityProvider[] ret = index[slot];
+        return ret == null ? undeclaredCaps : ret;
+    }
 
     @Override
     public <T> LazyOptional<T> getCapability(Capability<T> cap, @Nullable Direction side)
     {
-        for (ICapabilityProvider c : caps)
+        for (ICapabilityProvider c : getCandidates(cap))
         {
             LazyOptional<T> ret = c.getCapability(cap, side);
             //noinspection ConstantConditions
@@ -133,7 +219,70 @@ public final class CapabilityDispatcher implements INBTSerializable<CompoundTag>
     {                                                        // Only compares serializeable caps.
         if (other == null) return this.writers.length == 0;  // Done this way so we can do some pre-checks before doing the costly NBT serialization and compare
         if (this.writers.length == 0) return other.writers.length == 0;
-        return this.serializeNBT().equals(other.serializeNBT());
+        if (this.writers.length != other.writers.length || !Arrays.equals(this.names, other.names))
+            return this.serializeNBT().equals(other.serializeNBT());
+
+        // Same keys in the same order, so the compounds are equal exactly when every entry is.
+        for (int x = 0; x < writers.length; x++)
+        {
+            if (!areWritersCompatible(writers[x], other.writers[x]))
+                return false;
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean areWritersCompatible(INBTSerializable<Tag> a, INBTSerializable<Tag> b)
+    {
+        if (a == b)
+            return true;
+        if (a.getClass() == b.getClass())
+        {
+            if (DIRECT_COMPARE.get(a.getClass()))
+                return ((INBTComparable<Object>)a).isNBTEqual(b);
+            if (VIEW_COMPARE.get(a.getClass()))
+            {
+                Object viewA = ((INBTComparable.View)a).getNBTComparable();
+                Object viewB = ((INBTComparable.View)b).getNBTComparable();
+                if (viewA != null && viewB != null && viewA.getClass() == viewB.getClass() && DIRECT_COMPARE.get(viewA.getClass()))
+                    return viewA == viewB || ((INBTComparable<Object>)viewA).isNBTEqual(viewB);
+            }
+        }
+        return a.serializeNBT().equals(b.serializeNBT());
+    }
+
+    // Whether a writer class can be compared through INBTComparable, which is only the case if serializeNBT was not overridden below isNBTEqual.
+    private static final ClassValue<Boolean> DIRECT_COMPARE = new ClassValue<>()
+    {
+        @Override
+        protected Boolean computeValue(Class<?> type)
+        {
+            return INBTComparable.class.isAssignableFrom(type) && declaresSerializerAbove(type, "isNBTEqual", Object.class);
+        }
+    };
+
+    // Whether a writer class can be compared through the object of its INBTComparable.View, on the same terms as DIRECT_COMPARE.
+    private static final ClassValue<Boolean> VIEW_COMPARE = new ClassValue<>()
+    {
+        @Override
+        protected Boolean computeValue(Class<?> type)
+        {
+            return INBTComparable.View.class.isAssignableFrom(type) && declaresSerializerAbove(type, "getNBTComparable");
+        }
+    };
+
+    private static boolean declaresSerializerAbove(Class<?> type, String method, Class<?>... parameterTypes)
+    {
+        try
+        {
+            Class<?> serializer = type.getMethod("serializeNBT").getDeclaringClass();
+            Class<?> comparer = type.getMethod(method, parameterTypes).getDeclaringClass();
+            return serializer.isAssignableFrom(comparer);
+        }
+        catch (NoSuchMethodException e)
+        {
+            return false;
+        }
     }
 
     public void invalidate()
@@ -35,7 +35,7 @@ public enum CapabilityManager
         synchronized (providers)
         {
             realName = realName.intern();
-            cap = (Capability<T>)providers.computeIfAbsent(realName, Capability::new);
+            cap = (Capability<T>)providers.computeIfAbsent(realName, name -> new Capability<>(name, providers.size()));
         }
 
 
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) Forge Development LLC and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.minecraftforge.common.capabilities;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+
+/**
+ * An optional extension of {@link ICapabilityProvider} for providers that know up front which
+ * {@link Capability capabilities} they can ever expose.
+ *
+ * When a provider attached through the AttachCapabilitiesEvent implements this interface,
+ * the {@link CapabilityDispatcher} will index it by the declared capabilities and will never
+ * call {@link #getCapability(Capability, net.minecraft.core.Direction)} for any other capability.
+ * Providers that do not implement this interface are queried for every capability, as before.
+ */
+public interface IDeclaredCapabilityProvider extends ICapabilityProvider
+{
+    /**
+     * Called once when the owning {@link CapabilityDispatcher} is built, the result must not change afterwards.
+     *
+     * @return every capability this provider may return a present value for, on any side.
+     */
+    @NotNull
+    Collection<Capability<?>> getDeclaredCapabilities();
+}
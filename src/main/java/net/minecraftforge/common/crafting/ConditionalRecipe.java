@@ -60,6 +60,13 @@ public class ConditionalRecipe
             return null;
         }
 
+        // Tests conditions, which are not required to be thread-safe
+        @Override
+        public boolean isThreadSafe()
+        {
+            return false;
+        }
+
         //Should never get here as we return one of the recipes we wrap.
         @Override public T fromNetwork(ResourceLocation recipeId, FriendlyByteBuf buffer) { return null; }
         @Override public void toNetwork(FriendlyByteBuf buffer, T recipe) {}
@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) Forge Development LLC and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.minecraftforge.common.crafting;
+
+import com.mojang.datafixers.util.Pair;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.BlastingRecipe;
+import net.minecraft.world.item.crafting.CampfireCookingRecipe;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.item.crafting.RecipeType;
+import net.minecraft.world.item.crafting.ShapedRecipe;
+import net.minecraft.world.item.crafting.ShapelessRecipe;
+import net.minecraft.world.item.crafting.SmeltingRecipe;
+import net.minecraft.world.item.crafting.SmokingRecipe;
+import net.minecraft.world.item.crafting.StonecutterRecipe;
+import net.minecraft.world.level.Level;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Indexes the recipes of a {@link RecipeManager} by the items that can possibly match them, so looking up the recipe
+ * for a container only tests the recipes sharing an item with it.
+ * <p>
+ * A recipe is indexed under the items of one of its {@link Ingredient#isSimple() simple} ingredients, since it can
+ * only match a container holding one of them. That only holds for recipes that require every ingredient to be
+ * present, so only the vanilla crafting, cooking and stonecutting recipes are indexed, and only when their exact
+ * class is used; every other recipe is always tested. Candidates are tested in the order of the recipe map, so the
+ * results are the same as testing every recipe.
+ * <p>
+ * The index of a recipe type is built on first use and rebuilt whenever its recipe map is replaced, or tags and
+ * registry ids change, since those change the items of an ingredient.
+ */
+@ApiStatus.Internal
+public final class RecipeCandidateIndex
+{
+    // Testing a handful of recipes directly is cheaper than building and querying an index
+    private static final int MIN_RECIPES = 16;
+    private static final Set<Class<?>> INDEXABLE = Set.of(ShapedRecipe.class, ShapelessRecipe.class, SmeltingRecipe.class, BlastingRecipe.class,
+            SmokingRecipe.class, CampfireCookingRecipe.class, StonecutterRecipe.class);
+    private static volatile int generation;
+
+    private final Map<RecipeType<?>, Candidates<?, ?>> byType = new ConcurrentHashMap<>();
+
+    /**
+     * Discards the indices of every recipe manager, called when the items of ingredients may have changed.
+     */
+    public static void invalidateAll()
+    {
+        generation++;
+    }
+
+    /**
+     * @param recipes The recipes of the given type, by id
+     * @return The candidate index of the given type, or null if it has too few recipes to be worth indexing
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    public <C extends Container, T extends Recipe<C>> Candidates<C, T> get(RecipeType<T> type, Map<ResourceLocation, T> recipes)
+    {
+        if (recipes.size() < MIN_RECIPES)
+            return null;
+
+        int currentGeneration = generation;
+        Candidates<C, T> candidates = (Candidates<C, T>) byType.get(type);
+        if (candidates == null || candidates.source != recipes || candidates.generation != currentGeneration)
+        {
+            candidates = new Candidates<>(recipes, currentGeneration);
+            byType.put(type, candidates);
+        }
+        return candidates;
+    }
+
+    public static final class Candidates<C extends Container, T extends Recipe<C>>
+    {
+        private static final int[] NONE = new int[0];
+
+        private final Map<ResourceLocation, T> source;
+        private final int generation;
+        private final ResourceLocation[] ids;
+        private final List<T> recipes;
+        // Positions in the recipe map, ascending
+        private final Reference2ObjectMap<Item, int[]> byItem = new Reference2ObjectOpenHashMap<>();
+        private final int[] unindexed;
+
+        private Candidates(Map<ResourceLocation, T> source, int generation)
+        {
+            this.source = source;
+            this.generation = generation;
+            this.ids = new ResourceLocation[source.size()];
+            this.recipes = new ArrayList<>(source.size());
+
+            Reference2ObjectMap<Item, IntArrayList> byItem = new Reference2ObjectOpenHashMap<>();
+            IntArrayList unindexed = new IntArrayList();
+            for (Map.Entry<ResourceLocation, T> entry : source.entrySet())
+            {
+                int index = recipes.size();
+                ids[index] = entry.getKey();
+                recipes.add(entry.getValue());
+
+                Set<Item> keys = getKeyItems(entry.getValue());
+                if (keys == null)
+                    unindexed.add(index);
+                else
+                    keys.forEach(item -> byItem.computeIfAbsent(item, i -> new IntArrayList()).add(index));
+            }
+            byItem.forEach((item, indices) -> this.byItem.put(item, indices.toIntArray()));
+            this.unindexed = unindexed.toIntArray();
+        }
+
+        /**
+         * @return The items of the most selective simple ingredient of the recipe, or null if it can not be indexed.
+         */
+        @Nullable
+        private static Set<Item> getKeyItems(Recipe<?> recipe)
+        {
+            if (!INDEXABLE.contains(recipe.getClass()))
+                return null;
+
+            Set<Item> best = null;
+            for (Ingredient ingredient : recipe.getIngredients())
+            {
+                if (ingredient.isEmpty() || !ingredient.isSimple())
+                    continue;
+                Set<Item> items = new ReferenceOpenHashSet<>();
+                for (ItemStack stack : ingredient.getItems())
+                    items.add(stack.getItem());
+                if (best == null || items.size() < best.size())
+                    best = items;
+            }
+            return best;
+        }
+
+        public Optional<T> getRecipeFor(C container, Level level)
+        {
+            for (int index : candidates(container))
+            {
+                T recipe = recipes.get(index);
+                if (recipe.matches(container, level))
+                    return Optional.of(recipe);
+            }
+            return Optional.empty();
+        }
+
+        /**
+         * @param lastRecipe The recipe to test first, usually the one that matched the last time
+         */
+        public Optional<Pair<ResourceLocation, T>> getRecipeWithIdFor(C container, Level level, @Nullable ResourceLocation lastRecipe)
+        {
+            if (lastRecipe != null)
+            {
+                T recipe = source.get(lastRecipe);
+                if (recipe != null && recipe.matches(container, level))
+                    return Optional.of(Pair.of(lastRecipe, recipe));
+            }
+            for (int index : candidates(container))
+            {
+                T recipe = recipes.get(index);
+                if (recipe.matches(container, level))
+                    return Optional.of(Pair.of(ids[index], recipe));
+            }
+            return Optional.empty();
+        }
+
+        public List<T> getRecipesFor(C container, Level level)
+        {
+            List<T> ret = new ArrayList<>();
+            for (int index : candidates(container))
+            {
+                T recipe = recipes.get(index);
+                if (recipe.matches(container, level))
+                    ret.add(recipe);
+            }
+            ret.sort(Comparator.comparing(recipe -> recipe.getResultItem(level.registryAccess()).getDescriptionId()));
+            return ret;
+        }
+
+        /**
+         * @return The positions of every recipe that has to be tested against the container, ascending.
+         */
+        private int[] candidates(C container)
+        {
+            int[] indexed = collect(container);
+            if (unindexed.length == 0)
+                return indexed;
+            if (indexed.length == 0)
+                return unindexed;
+
+            // Both are sorted and never share a recipe
+            int[] ret = new int[indexed.length + unindexed.length];
+            for (int i = 0, u = 0, r = 0; r < ret.length; r++)
+            {
+                if (u >= unindexed.length || (i < indexed.length && indexed[i] < unindexed[u]))
+                    ret[r] = indexed[i++];
+                else
+                    ret[r] = unindexed[u++];
+            }
+            return ret;
+        }
+
+        /**
+         * @return The sorted, distinct positions of the indexed recipes sharing an item with the container.
+         */
+        private int[] collect(C container)
+        {
+            int[] first = null;
+            IntArrayList merged = null;
+            Item previous = null;
+            for (int slot = 0; slot < container.getContainerSize(); slot++)
+            {
+                ItemStack stack = container.getItem(slot);
+                if (stack.isEmpty() || stack.getItem() == previous)
+                    continue;
+                previous = stack.getItem();
+                int[] indices = byItem.get(previous);
+                if (indices == null || indices == first)
+                    continue;
+                if (first == null)
+                {
+                    first = indices;
+                    continue;
+                }
+                if (merged == null)
+                    merged = IntArrayList.wrap(first.clone());
+                merged.addElements(merged.size(), indices);
+            }
+
+            if (merged == null)
+                return first == null ? NONE : first;
+            int[] elements = merged.toIntArray();
+            IntArrays.unstableSort(elements);
+            int size = 0;
+            for (int i = 0; i < elements.length; i++)
+            {
+                if (size == 0 || elements[size - 1] != elements[i])
+                    elements[size++] = elements[i];
+            }
+            return size == elements.length ? elements : Arrays.copyOf(elements, size);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) Forge Development LLC and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.minecraftforge.common.crafting;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.util.GsonHelper;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.item.crafting.RecipeSerializer;
+import net.minecraftforge.common.crafting.conditions.ICondition;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Deserializes recipe JSONs for the {@link RecipeManager} on the common fork-join pool.
+ * <p>
+ * Conditions are evaluated on the calling thread and in input order, since mod conditions and the tags of the
+ * context are not required to be thread-safe. The recipes that pass are deserialized in parallel, and the results are
+ * handed back by recipe id, so the recipe manager still builds its maps by iterating the input in its original order.
+ * Recipes whose serializer is not {@link net.minecraftforge.common.extensions.IForgeRecipeSerializer#isThreadSafe()
+ * thread-safe} are deserialized afterwards, on the calling thread and in input order.
+ */
+@ApiStatus.Internal
+public final class RecipeLoader
+{
+    // Below this, splitting the work costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    private RecipeLoader()
+    {
+    }
+
+    public static Map<ResourceLocation, Result> load(Map<ResourceLocation, JsonElement> recipes, ICondition.IContext context)
+    {
+        @SuppressWarnings("unchecked")
+        Map.Entry<ResourceLocation, JsonElement>[] entries = recipes.entrySet().toArray(new Map.Entry[0]);
+        Result[] results = new Result[entries.length];
+        JsonObject[] objects = new JsonObject[entries.length];
+        IntArrayList parallel = new IntArrayList(entries.length);
+        IntArrayList sequential = new IntArrayList();
+
+        for (int i = 0; i < entries.length; i++)
+        {
+            ResourceLocation id = entries[i].getKey();
+            JsonElement json = entries[i].getValue();
+            if (id.getPath().startsWith("_"))
+            {
+                results[i] = Result.SKIPPED;
+                continue;
+            }
+
+            try
+            {
+                if (json.isJsonObject() && !CraftingHelper.processConditions(json.getAsJsonObject(), "conditions", context))
+                {
+                    results[i] = Result.CONDITIONS_FAILED;
+                    continue;
+                }
+                objects[i] = GsonHelper.convertToJsonObject(json, "top element");
+                RecipeSerializer<?> serializer = BuiltInRegistries.RECIPE_SERIALIZER.get(new ResourceLocation(GsonHelper.getAsString(objects[i], "type")));
+                if (serializer != null && !serializer.isThreadSafe())
+                    sequential.add(i);
+                else
+                    parallel.add(i);
+            }
+            catch (IllegalArgumentException | JsonParseException e)
+            {
+                results[i] = new Result(null, e);
+            }
+        }
+
+        IntStream indices = Arrays.stream(parallel.toIntArray());
+        if (parallel.size() >= PARALLEL_THRESHOLD)
+            indices = indices.parallel();
+        indices.forEach(i -> results[i] = load(entries[i].getKey(), objects[i], context));
+        for (int i : sequential.toIntArray())
+            results[i] = load(entries[i].getKey(), objects[i], context);
+
+        Map<ResourceLocation, Result> ret = new HashMap<>(entries.length);
+        for (int i = 0; i < entries.length; i++)
+            ret.put(entries[i].getKey(), results[i]);
+        return ret;
+    }
+
+    private static Result load(ResourceLocation id, JsonObject json, ICondition.IContext context)
+    {
+        try
+        {
+            return new Result(RecipeManager.fromJson(id, json, context), null);
+        }
+        catch (IllegalArgumentException | JsonParseException e)
+        {
+            return new Result(null, e);
+        }
+    }
+
+    /**
+     * The outcome of loading a single recipe.
+     */
+    public static final class Result
+    {
+        private static final Result SKIPPED = new Result(null, null);
+        private static final Result CONDITIONS_FAILED = new Result(null, null);
+
+        @Nullable
+        private final Recipe<?> recipe;
+        @Nullable
+        private final RuntimeException error;
+
+        private Result(@Nullable Recipe<?> recipe, @Nullable RuntimeException error)
+        {
+            this.recipe = recipe;
+            this.error = error;
+        }
+
+        /**
+         * @return Whether the recipe should be ignored without logging, such as metadata files starting with {@code _}.
+         */
+        public boolean isSkipped()
+        {
+            return this == SKIPPED;
+        }
+
+        public boolean conditionsFailed()
+        {
+            return this == CONDITIONS_FAILED;
+        }
+
+        /**
+         * @return The deserialized recipe, or null if its serializer returned null.
+         * @throws RuntimeException The exception thrown while loading the recipe, if any
+         */
+        @Nullable
+        public Recipe<?> get()
+        {
+            if (error != null)
+                throw error;
+            return recipe;
+        }
+    }
+}
@@ -20,7 +20,8 @@ import java.util.Map;
 public class ConditionContext implements ICondition.IContext
 {
 	private final TagManager tagManager;
-	private Map<ResourceKey<?>, Map<ResourceLocation, Collection<Holder<?>>>> loadedTags = null;
+	// Conditions of nested recipes can be tested while recipes are deserialized in parallel, so the map is only published once filled
+	private volatile Map<ResourceKey<?>, Map<ResourceLocation, Collection<Holder<?>>>> loadedTags = null;
 
 	public ConditionContext(TagManager tagManager)
 	{
@@ -31,18 +32,20 @@ public class ConditionContext implements ICondition.IContext
     @Override
 	public <T> Map<ResourceLocation, Collection<Holder<T>>> getAllTags(ResourceKey<? extends Registry<T>> registry)
 	{
-		if (loadedTags == null)
+		var loaded = loadedTags;
+		if (loaded == null)
 		{
 			var tags = tagManager.getResult();
 			if (tags.isEmpty()) throw new IllegalStateException("Tags have not been loaded yet.");
 
-			loadedTags = new IdentityHashMap<>();
+			loaded = new IdentityHashMap<>();
 			for (var loadResult : tags)
 			{
                 Map<ResourceLocation, Collection<? extends Holder<?>>> map = Collections.unmodifiableMap(loadResult.tags());
-                loadedTags.put(loadResult.key(), (Map) map);
+                loaded.put(loadResult.key(), (Map) map);
 			}
+			loadedTags = loaded;
 		}
-		return (Map) loadedTags.getOrDefault(registry, Collections.emptyMap());
+		return (Map) loaded.getOrDefault(registry, Collections.emptyMap());
 	}
 }
@@ -22,4 +22,14 @@ public interface IForgeRecipeSerializer<T extends Recipe<?>>
 	{
 		return self().fromJson(recipeLoc, recipeJson);
 	}
+
+	/**
+	 * Recipes are deserialized in parallel while loading data packs. Serializers that keep mutable state,
+	 * or call into code that is not thread-safe, should return false to have their recipes deserialized on
+	 * a single thread instead.
+	 */
+	default boolean isThreadSafe()
+	{
+		return true;
+	}
 }
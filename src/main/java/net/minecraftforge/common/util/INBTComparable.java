@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) Forge Development LLC and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.minecraftforge.common.util;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An optional companion to {@link INBTSerializable} that lets two instances of the same class
+ * compare their serialized form directly, without building and comparing NBT tags.
+ * <p>
+ * This is used by the CapabilityDispatcher when comparing ItemStack capabilities, so that
+ * stack merging and hopper inserts do not need to serialize every capability.
+ * It is only used when {@link INBTSerializable#serializeNBT()} is declared by the same class that
+ * implements this interface (or a superclass of it); subclasses that change what is serialized
+ * fall back to comparing tags until they override this as well.
+ * <p>
+ * Capability providers are usually wrappers that serialize the handler they expose, and can implement {@link View}
+ * to be compared through that handler.
+ *
+ * @param <T> The implementing type.
+ */
+public interface INBTComparable<T>
+{
+    /**
+     * Only called with an instance of the exact same class as this one.
+     *
+     * @return true if {@code serializeNBT()} would return equal tags for this and the other instance.
+     */
+    boolean isNBTEqual(T other);
+
+    /**
+     * Implemented by objects whose {@code serializeNBT()} returns exactly the serialized form of another object, such as
+     * a capability provider that only serializes the handler it exposes, so they can be compared through that object.
+     * It is only used when {@code serializeNBT()} is declared by the same class that implements this interface (or a
+     * superclass of it), like {@link INBTComparable} itself.
+     */
+    interface View
+    {
+        /**
+         * @return The object that serializes to the same tag as this one, or null to compare tags instead. It is only
+         *         compared directly if it implements {@link INBTComparable}.
+         */
+        @Nullable
+        Object getNBTComparable();
+    }
+}
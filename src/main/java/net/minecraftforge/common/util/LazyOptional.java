@@ -298,6 +298,15 @@ public class LazyOptional<T>
         }
     }
 
+    /**
+     * Unregister a {@link NonNullConsumer listener} previously {@linkplain #addListener(NonNullConsumer) registered},
+     * for listeners that stop caring about this {@link LazyOptional} before it becomes invalid.
+     */
+    public void removeListener(NonNullConsumer<LazyOptional<T>> listener)
+    {
+        this.listeners.remove(listener);
+    }
+
     /**
      * Invalidate this {@link LazyOptional}, making it unavailable for further use,
      * and notifying any {@link #addListener(NonNullConsumer) listeners} that this
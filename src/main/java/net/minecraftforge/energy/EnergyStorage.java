@@ -7,6 +7,7 @@ package net.minecraftforge.energy;
 
 import net.minecraft.nbt.IntTag;
 import net.minecraft.nbt.Tag;
+import net.minecraftforge.common.util.INBTComparable;
 import net.minecraftforge.common.util.INBTSerializable;
 
 /**
@@ -15,7 +16,7 @@ import net.minecraftforge.common.util.INBTSerializable;
  * Derived from the Redstone Flux power system designed by King Lemming and originally utilized in Thermal Expansion and related mods.
  * Created with consent and permission of King Lemming and Team CoFH. Released with permission under LGPL 2.1 when bundled with Forge.
  */
-public class EnergyStorage implements IEnergyStorage, INBTSerializable<Tag>
+public class EnergyStorage implements IEnergyStorage, INBTSerializable<Tag>, INBTComparable<EnergyStorage>
 {
     protected int energy;
     protected int capacity;
@@ -106,4 +107,10 @@ public class EnergyStorage implements IEnergyStorage, INBTSerializable<Tag>
             throw new IllegalArgumentException("Can not deserialize to an instance that isn't the default implementation");
         this.energy = intNbt.getAsInt();
     }
+
+    @Override
+    public boolean isNBTEqual(EnergyStorage other)
+    {
+        return this.getEnergyStored() == other.getEnergyStored();
+    }
 }
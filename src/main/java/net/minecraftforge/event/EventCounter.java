@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) Forge Development LLC and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.minecraftforge.event;
+
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.eventbus.ListenerList;
+import net.minecraftforge.eventbus.api.Event;
+import net.minecraftforge.eventbus.api.EventListenerHelper;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.IEventBus;
+import net.minecraftforge.eventbus.api.IEventListener;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often a frequently fired event is posted on {@link MinecraftForge#EVENT_BUS}, and lets its hook skip
+ * creating and posting the event entirely while nothing listens to it.
+ * <p>
+ * An event type has no listeners when the listener list the bus would post it to only holds the
+ * {@link EventPriority} markers the bus inserts between priorities. Listeners registered for a super class of the
+ * event are part of that list, so they are taken into account. If the bus or the listener list of an event can not
+ * be inspected, the event is always posted.
+ */
+@ApiStatus.Internal
+public final class EventCounter
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final Map<Class<? extends Event>, EventCounter> COUNTERS = new ConcurrentHashMap<>();
+    private static final int BUS_ID = findBusId(MinecraftForge.EVENT_BUS);
+
+    private final Class<? extends Event> type;
+    private final LongAdder posted = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    @Nullable
+    private volatile ListenerList listeners;
+    private volatile boolean unknown;
+
+    private EventCounter(Class<? extends Event> type)
+    {
+        this.type = type;
+    }
+
+    /**
+     * @return The counter of the given event type, shared by every caller.
+     */
+    public static EventCounter of(Class<? extends Event> type)
+    {
+        return COUNTERS.computeIfAbsent(type, EventCounter::new);
+    }
+
+    /**
+     * @return A snapshot of every counter created so far.
+     */
+    public static List<EventCounter> getCounters()
+    {
+        return List.copyOf(COUNTERS.values());
+    }
+
+    /**
+     * @return Whether any listener would receive an event of the given type posted on {@link MinecraftForge#EVENT_BUS}.
+     */
+    public static boolean hasListeners(Class<? extends Event> type)
+    {
+        return of(type).hasListeners();
+    }
+
+    /**
+     * Checks whether the event has to be posted, and counts the outcome.
+     *
+     * @return false if nothing listens to the event, in which case the caller should act as if it was posted without
+     *         any changes
+     */
+    public boolean shouldPost()
+    {
+        if (hasListeners())
+        {
+            posted.increment();
+            return true;
+        }
+        skipped.increment();
+        return false;
+    }
+
+    private boolean hasListeners()
+    {
+        ListenerList list = getListenerList();
+        if (list == null)
+            return true;
+
+        for (IEventListener listener : list.getListeners(BUS_ID))
+        {
+            if (!(listener instanceof EventPriority))
+                return true;
+        }
+        return false;
+    }
+
+    @Nullable
+    private ListenerList getListenerList()
+    {
+        ListenerList list = listeners;
+        if (list != null || unknown || BUS_ID < 0)
+            return list;
+
+        try
+        {
+            list = listeners = EventListenerHelper.getListenerList(type);
+        }
+        catch (RuntimeException e)
+        {
+            LOGGER.debug("Unable to look up the listeners of {}, it will always be posted", type.getName(), e);
+            unknown = true;
+        }
+        return list;
+    }
+
+    public Class<? extends Event> getType()
+    {
+        return type;
+    }
+
+    /**
+     * @return How often the event was posted.
+     */
+    public long getPosted()
+    {
+        return posted.sum();
+    }
+
+    /**
+     * @return How often posting the event was skipped because nothing listened to it.
+     */
+    public long getSkipped()
+    {
+        return skipped.sum();
+    }
+
+    private static int findBusId(IEventBus bus)
+    {
+        try
+        {
+            Field field = bus.getClass().getDeclaredField("busID");
+            field.setAccessible(true);
+            return field.getInt(bus);
+        }
+        catch (ReflectiveOperationException | RuntimeException e)
+        {
+            LOGGER.warn("Unable to find the id of the Forge event bus, events without listeners will still be posted", e);
+            return -1;
+        }
+    }
+}
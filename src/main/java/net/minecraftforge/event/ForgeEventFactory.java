@@ -92,6 +92,11 @@ import java.util.function.Consumer;
 
 public class ForgeEventFactory
 {
+    // Events fired often enough that creating them while nothing listens shows up in profiles
+    private static final EventCounter NEIGHBOR_NOTIFY = EventCounter.of(NeighborNotifyEvent.class);
+    private static final EventCounter MOB_GRIEFING = EventCounter.of(EntityMobGriefingEvent.class);
+    private static final EventCounter DESTROY_BLOCK = EventCounter.of(LivingDestroyBlockEvent.class);
+    private static final EventCounter CHUNK_TICKET_LEVEL_UPDATED = EventCounter.of(ChunkTicketLevelUpdatedEvent.class);
 
     public static boolean onMultiBlockPlace(@Nullable Entity entity, List<BlockSnapshot> blockSnapshots, Direction direction)
     {
@@ -115,6 +120,37 @@ public class ForgeEventFactory
         return event;
     }
 
+    /**
+     * Fires the {@link NeighborNotifyEvent} for every side of the given position, except for {@code skipSide}.
+     * Nothing is created while the event has no listeners.
+     *
+     * @param skipSide The side that is not notified, or null to notify every side
+     * @return Whether the notification was cancelled
+     */
+    public static boolean onNeighborNotify(Level level, BlockPos pos, @Nullable Direction skipSide, boolean forceRedstoneUpdate)
+    {
+        if (!NEIGHBOR_NOTIFY.shouldPost())
+            return false;
+
+        EnumSet<Direction> notifiedSides = EnumSet.allOf(Direction.class);
+        if (skipSide != null)
+            notifiedSides.remove(skipSide);
+        return onNeighborNotify(level, pos, level.getBlockState(pos), notifiedSides, forceRedstoneUpdate).isCanceled();
+    }
+
+    /**
+     * Fires the {@link NeighborNotifyEvent} for a single side of the given position.
+     * Nothing is created while the event has no listeners.
+     *
+     * @return Whether the notification was cancelled
+     */
+    public static boolean onNeighborNotifySide(Level level, BlockPos pos, Direction side, boolean forceRedstoneUpdate)
+    {
+        if (!NEIGHBOR_NOTIFY.shouldPost())
+            return false;
+        return onNeighborNotify(level, pos, level.getBlockState(pos), EnumSet.of(side), forceRedstoneUpdate).isCanceled();
+    }
+
     public static boolean doPlayerHarvestCheck(Player player, BlockState state, boolean success)
     {
         PlayerEvent.HarvestCheck event = new PlayerEvent.HarvestCheck(player, state, success);
@@ -651,12 +687,12 @@ public class ForgeEventFactory
 
     public static boolean onEntityDestroyBlock(LivingEntity entity, BlockPos pos, BlockState state)
     {
-        return !MinecraftForge.EVENT_BUS.post(new LivingDestroyBlockEvent(entity, pos, state));
+        return !DESTROY_BLOCK.shouldPost() || !MinecraftForge.EVENT_BUS.post(new LivingDestroyBlockEvent(entity, pos, state));
     }
 
     public static boolean getMobGriefingEvent(Level level, @Nullable Entity entity)
     {
-        if (entity == null)
+        if (entity == null || !MOB_GRIEFING.shouldPost())
             return level.getGameRules().getBoolean(GameRules.RULE_MOBGRIEFING);
 
         EntityMobGriefingEvent event = new EntityMobGriefingEvent(entity);
@@ -691,7 +727,7 @@ public class ForgeEventFactory
 
     public static void fireChunkTicketLevelUpdated(ServerLevel level, long chunkPos, int oldTicketLevel, int newTicketLevel, @Nullable ChunkHolder chunkHolder)
     {
-        if (oldTicketLevel != newTicketLevel)
+        if (oldTicketLevel != newTicketLevel && CHUNK_TICKET_LEVEL_UPDATED.shouldPost())
             MinecraftForge.EVENT_BUS.post(new ChunkTicketLevelUpdatedEvent(level, chunkPos, oldTicketLevel, newTicketLevel, chunkHolder));
     }
 
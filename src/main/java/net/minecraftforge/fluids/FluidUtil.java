@@ -23,6 +23,7 @@ import net.minecraft.world.phys.BlockHitResult;
 import net.minecraft.world.phys.Vec3;
 import net.minecraft.world.level.Level;
 import net.minecraftforge.common.SoundActions;
+import net.minecraftforge.common.capabilities.BlockCapabilityCache;
 import net.minecraftforge.common.capabilities.ForgeCapabilities;
 import net.minecraftforge.common.util.LazyOptional;
 import net.minecraftforge.fluids.capability.IFluidHandler;
@@ -453,9 +454,14 @@ public class FluidUtil
 
     /**
      * Helper method to get an IFluidHandler for at a block position.
+     * On the level's own thread, the result is served from the level's {@link BlockCapabilityCache}.
      */
     public static LazyOptional<IFluidHandler> getFluidHandler(Level level, BlockPos blockPos, @Nullable Direction side)
     {
+        BlockCapabilityCache cache = BlockCapabilityCache.of(level);
+        if (cache.isOwnerThread())
+            return cache.getCapability(blockPos, side, ForgeCapabilities.FLUID_HANDLER);
+
         BlockState state = level.getBlockState(blockPos);
         if (state.hasBlockEntity())
         {
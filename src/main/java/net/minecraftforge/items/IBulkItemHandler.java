@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) Forge Development LLC and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.minecraftforge.items;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.world.item.ItemStack;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An optional extension of {@link IItemHandler} for handlers that can answer queries over all of their slots faster
+ * than calling {@link #getStackInSlot(int)} for every slot, such as handlers backed by a list or composed of other
+ * handlers. {@link ItemHandlerHelper} and the hopper hooks use it when a handler implements it.
+ * <p>
+ * The default implementations only use the single slot methods, so implementing this interface without overriding
+ * anything is correct, just not faster. The insertion helpers only visit slots that are empty or hold a stack that
+ * {@linkplain ItemHandlerHelper#canItemStacksStack(ItemStack, ItemStack) can stack} with the inserted one, so they are
+ * only used while {@link #supportsBulkInsertion()} returns true.
+ */
+public interface IBulkItemHandler extends IItemHandler
+{
+    /**
+     * @return Whether this handler only accepts insertions into empty slots and slots holding a stack that can stack
+     *         with the inserted one. Handlers with slots that accept other stacks, such as filter or void slots, must
+     *         return false, in which case {@link ItemHandlerHelper#insertItemStacked} and the hopper hooks visit every
+     *         slot instead of only the {@linkplain #findSlots(ItemStack) matching} and empty ones.
+     */
+    default boolean supportsBulkInsertion()
+    {
+        return true;
+    }
+
+    /**
+     * Finds the slots holding a stack that {@linkplain ItemHandlerHelper#canItemStacksStack(ItemStack, ItemStack) can
+     * stack} with the given stack, which means the same item with the same tag.
+     *
+     * @param stack The stack to look for
+     * @return The matching slots, in ascending order. The returned array can be safely modified.
+     */
+    default int[] findSlots(@NotNull ItemStack stack)
+    {
+        IntArrayList ret = new IntArrayList();
+        if (stack.isEmpty())
+            return ret.toIntArray();
+        for (int slot = 0; slot < getSlots(); slot++)
+        {
+            if (ItemHandlerHelper.canItemStacksStack(getStackInSlot(slot), stack))
+                ret.add(slot);
+        }
+        return ret.toIntArray();
+    }
+
+    /**
+     * Finds the first empty slot at or after the given slot.
+     *
+     * @param fromSlot The slot to start searching at
+     * @return The empty slot, or -1 if there is none
+     */
+    default int findEmptySlot(int fromSlot)
+    {
+        for (int slot = Math.max(fromSlot, 0); slot < getSlots(); slot++)
+        {
+            if (getStackInSlot(slot).isEmpty())
+                return slot;
+        }
+        return -1;
+    }
+
+    /**
+     * Inserts the stack into this handler, filling up the {@linkplain #findSlots(ItemStack) matching slots} first and
+     * then empty slots, both in ascending order. This is the same as {@link ItemHandlerHelper#insertItemStacked} if
+     * this handler {@linkplain #supportsBulkInsertion() supports bulk insertion}.
+     *
+     * @param stack    The stack to insert. This must not be modified by the item handler.
+     * @param simulate If true, the insertion is only simulated
+     * @return The remaining ItemStack that was not inserted.
+     */
+    @NotNull
+    default ItemStack insertStacked(@NotNull ItemStack stack, boolean simulate)
+    {
+        if (stack.isEmpty())
+            return stack;
+
+        for (int slot : findSlots(stack))
+        {
+            stack = insertItem(slot, stack, simulate);
+            if (stack.isEmpty())
+                return ItemStack.EMPTY;
+        }
+        for (int slot = findEmptySlot(0); slot >= 0; slot = findEmptySlot(slot + 1))
+        {
+            stack = insertItem(slot, stack, simulate);
+            if (stack.isEmpty())
+                return ItemStack.EMPTY;
+        }
+        return stack;
+    }
+
+    /**
+     * Extracts up to the given amount of stacks matching the given stack, from the {@linkplain #findSlots(ItemStack)
+     * matching slots} in ascending order.
+     *
+     * @param stack    The stack to extract, only its item and tag are used
+     * @param amount   Amount to extract, limited to the stack's {@link ItemStack#getMaxStackSize()}
+     * @param simulate If true, the extraction is only simulated
+     * @return The extracted items in a single stack, empty if nothing was extracted.
+     */
+    @NotNull
+    default ItemStack extractMatching(@NotNull ItemStack stack, int amount, boolean simulate)
+    {
+        if (stack.isEmpty() || amount <= 0)
+            return ItemStack.EMPTY;
+
+        amount = Math.min(amount, stack.getMaxStackSize());
+        ItemStack ret = ItemStack.EMPTY;
+        for (int slot : findSlots(stack))
+        {
+            ItemStack extracted = extractItem(slot, amount - ret.getCount(), simulate);
+            if (extracted.isEmpty())
+                continue;
+            if (ret.isEmpty())
+                ret = extracted;
+            else
+                ret.grow(extracted.getCount());
+            if (ret.getCount() >= amount)
+                break;
+        }
+        return ret;
+    }
+}
@@ -5,6 +5,8 @@
 
 package net.minecraftforge.items;
 
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
 import net.minecraft.sounds.SoundEvents;
 import net.minecraft.sounds.SoundSource;
 import net.minecraft.util.Mth;
@@ -12,12 +14,24 @@ import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.Level;
+import net.minecraftforge.common.capabilities.BlockCapabilityCache;
+import net.minecraftforge.common.capabilities.ForgeCapabilities;
+import net.minecraftforge.common.util.LazyOptional;
 import net.minecraftforge.items.wrapper.PlayerMainInvWrapper;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public class ItemHandlerHelper
 {
+    /**
+     * Helper method to get an IItemHandler for a block entity at a block position.
+     * The result is served from the level's {@link BlockCapabilityCache}.
+     */
+    public static LazyOptional<IItemHandler> getItemHandler(Level level, BlockPos pos, @Nullable Direction side)
+    {
+        return BlockCapabilityCache.getCapability(level, pos, side, ForgeCapabilities.ITEM_HANDLER);
+    }
+
     @NotNull
     public static ItemStack insertItem(IItemHandler dest, @NotNull ItemStack stack, boolean simulate)
     {
@@ -82,6 +96,7 @@ public class ItemHandlerHelper
     /**
      * Inserts the ItemStack into the inventory, filling up already present stacks first.
      * This is equivalent to the behaviour of a player picking up an item.
+     * Uses {@link IBulkItemHandler#insertStacked} if the inventory implements it and supports bulk insertion.
      * Note: This function stacks items without subtypes with different metadata together.
      */
     @NotNull
@@ -96,6 +111,11 @@ public class ItemHandlerHelper
             return insertItem(inventory, stack, simulate);
         }
 
+        if (inventory instanceof IBulkItemHandler bulk && bulk.supportsBulkInsertion())
+        {
+            return bulk.insertStacked(stack, simulate);
+        }
+
         int sizeInventory = inventory.getSlots();
 
         // go through the inventory and try to fill up already existing items
@@ -5,17 +5,43 @@
 
 package net.minecraftforge.items;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import net.minecraft.nbt.Tag;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.core.NonNullList;
+import net.minecraftforge.common.util.INBTComparable;
 import net.minecraftforge.common.util.INBTSerializable;
 import org.jetbrains.annotations.NotNull;
-
-public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, INBTSerializable<CompoundTag>
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * An item handler backed by a list of stacks.
+ * <p>
+ * Slots changed through this handler are reported to its {@linkplain #addListener(SlotListener) listeners}, which
+ * can be used to sync only the changed slots. {@link #serializeNBT()} keeps the tag of every slot, and reuses it as
+ * long as the slot still holds the same stack with the same count and tag, so saving an unchanged inventory copies
+ * the previous tags instead of serializing every stack again. The returned compound never shares tags with the cache.
+ */
+public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, IBulkItemHandler, INBTSerializable<CompoundTag>, INBTComparable<ItemStackHandler>
 {
+    // Subclasses that override the slot methods may expose other stacks or accept other slots than the backing list suggests
+    private static final ClassValue<Boolean> DIRECT_SLOTS = new SlotMethodCheck(ItemStackHandler.class);
+
     protected NonNullList<ItemStack> stacks;
+    // Created by the first listener, most handlers never get one
+    @Nullable
+    private List<SlotListener> listeners;
+    // The stack, count and tag each slot had when it was last serialized, created on first use
+    @Nullable
+    private ItemStack[] serializedStacks;
+    private int[] serializedCounts;
+    private CompoundTag[] serializedTags;
 
     public ItemStackHandler()
     {
@@ -42,7 +68,7 @@ public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, I
     {
         validateSlotIndex(slot);
         this.stacks.set(slot, stack);
-        onContentsChanged(slot);
+        onSlotChanged(slot);
     }
 
     @Override
@@ -98,7 +124,7 @@ public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, I
             {
                 existing.grow(reachedLimit ? limit : stack.getCount());
             }
-            onContentsChanged(slot);
+            onSlotChanged(slot);
         }
 
         return reachedLimit ? ItemHandlerHelper.copyStackWithSize(stack, stack.getCount()- limit) : ItemStack.EMPTY;
@@ -125,7 +151,7 @@ public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, I
             if (!simulate)
             {
                 this.stacks.set(slot, ItemStack.EMPTY);
-                onContentsChanged(slot);
+                onSlotChanged(slot);
                 return existing;
             }
             else
@@ -138,13 +164,50 @@ public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, I
             if (!simulate)
             {
                 this.stacks.set(slot, ItemHandlerHelper.copyStackWithSize(existing, existing.getCount() - toExtract));
-                onContentsChanged(slot);
+                onSlotChanged(slot);
             }
 
             return ItemHandlerHelper.copyStackWithSize(existing, toExtract);
         }
     }
 
+    @Override
+    public int[] findSlots(@NotNull ItemStack stack)
+    {
+        if (!DIRECT_SLOTS.get(getClass()))
+            return IBulkItemHandler.super.findSlots(stack);
+        IntArrayList ret = new IntArrayList();
+        if (stack.isEmpty())
+            return ret.toIntArray();
+        for (int i = 0; i < stacks.size(); i++)
+        {
+            // Identity check first, most slots hold a different item
+            ItemStack existing = stacks.get(i);
+            if (existing.getItem() == stack.getItem() && ItemHandlerHelper.canItemStacksStack(existing, stack))
+                ret.add(i);
+        }
+        return ret.toIntArray();
+    }
+
+    @Override
+    public int findEmptySlot(int fromSlot)
+    {
+        if (!DIRECT_SLOTS.get(getClass()))
+            return IBulkItemHandler.super.findEmptySlot(fromSlot);
+        for (int i = Math.max(fromSlot, 0); i < stacks.size(); i++)
+        {
+            if (stacks.get(i).isEmpty())
+                return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean supportsBulkInsertion()
+    {
+        return DIRECT_SLOTS.get(getClass());
+    }
+
     @Override
     public int getSlotLimit(int slot)
     {
@@ -165,16 +228,34 @@ public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, I
     @Override
     public CompoundTag serializeNBT()
     {
+        if (serializedStacks == null || serializedStacks.length != stacks.size())
+        {
+            serializedStacks = new ItemStack[stacks.size()];
+            serializedCounts = new int[stacks.size()];
+            serializedTags = new CompoundTag[stacks.size()];
+        }
+
         ListTag nbtTagList = new ListTag();
         for (int i = 0; i < stacks.size(); i++)
         {
-            if (!stacks.get(i).isEmpty())
+            ItemStack stack = stacks.get(i);
+            if (stack.isEmpty())
+            {
+                serializedStacks[i] = null;
+                serializedTags[i] = null;
+                continue;
+            }
+            if (!isSerializedTagValid(i, stack))
             {
                 CompoundTag itemTag = new CompoundTag();
                 itemTag.putInt("Slot", i);
-                stacks.get(i).save(itemTag);
-                nbtTagList.add(itemTag);
+                stack.save(itemTag);
+                serializedStacks[i] = stack;
+                serializedCounts[i] = stack.getCount();
+                serializedTags[i] = itemTag;
             }
+            // Callers may modify the result, which must not change the cached tag
+            nbtTagList.add(serializedTags[i].copy());
         }
         CompoundTag nbt = new CompoundTag();
         nbt.put("Items", nbtTagList);
@@ -182,6 +263,33 @@ public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, I
         return nbt;
     }
 
+    /**
+     * The stack in a slot can also be changed without going through this handler, so the previous tag is only reused
+     * if the slot holds the same stack, with the same count and tag. Capabilities are not compared, so stacks with
+     * capabilities are always serialized again.
+     */
+    private boolean isSerializedTagValid(int slot, ItemStack stack)
+    {
+        if (serializedStacks[slot] != stack || serializedCounts[slot] != stack.getCount())
+            return false;
+        if (stack.getCapabilities() != null)
+            return false;
+        return Objects.equals(stack.getTag(), serializedTags[slot].get("tag"));
+    }
+
+    @Override
+    public boolean isNBTEqual(ItemStackHandler other)
+    {
+        if (stacks.size() != other.stacks.size())
+            return false;
+        for (int i = 0; i < stacks.size(); i++)
+        {
+            if (!ItemStack.matches(stacks.get(i), other.stacks.get(i)))
+                return false;
+        }
+        return true;
+    }
+
     @Override
     public void deserializeNBT(CompoundTag nbt)
     {
@@ -215,4 +323,46 @@ public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, I
     {
 
     }
+
+    /**
+     * Adds a listener called whenever a slot is changed through this handler, after {@link #onContentsChanged(int)}.
+     * Changes made directly to the stack list or to a stack are not reported.
+     */
+    public void addListener(SlotListener listener)
+    {
+        if (listeners == null)
+            listeners = new CopyOnWriteArrayList<>();
+        listeners.add(listener);
+    }
+
+    public void removeListener(SlotListener listener)
+    {
+        List<SlotListener> listeners = this.listeners;
+        if (listeners != null)
+            listeners.remove(listener);
+    }
+
+    /**
+     * Marks the slot as changed, to be called by subclasses that change the stack in a slot without going through
+     * this handler's methods. This notifies the listeners and calls {@link #onContentsChanged(int)}.
+     */
+    protected void onSlotChanged(int slot)
+    {
+        onContentsChanged(slot);
+        List<SlotListener> listeners = this.listeners;
+        if (listeners != null)
+        {
+            for (SlotListener listener : listeners)
+                listener.onSlotChanged(this, slot);
+        }
+    }
+
+    @FunctionalInterface
+    public interface SlotListener
+    {
+        /**
+         * Called after the stack in the slot was changed through the handler.
+         */
+        void onSlotChanged(ItemStackHandler handler, int slot);
+    }
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) Forge Development LLC and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.minecraftforge.items;
+
+import net.minecraft.world.item.ItemStack;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * Whether a subclass of an item handler still uses the slot methods of the given base class, so the bulk operations of
+ * the base class, which skip slots that are neither matching nor empty, still describe its behaviour.
+ */
+@ApiStatus.Internal
+public final class SlotMethodCheck extends ClassValue<Boolean>
+{
+    private final Class<? extends IItemHandler> base;
+
+    public SlotMethodCheck(Class<? extends IItemHandler> base)
+    {
+        this.base = base;
+    }
+
+    @Override
+    protected Boolean computeValue(Class<?> type)
+    {
+        try
+        {
+            return type.getMethod("getSlots").getDeclaringClass() == base
+                    && type.getMethod("getStackInSlot", int.class).getDeclaringClass() == base
+                    && type.getMethod("insertItem", int.class, ItemStack.class, boolean.class).getDeclaringClass() == base
+                    && type.getMethod("isItemValid", int.class, ItemStack.class).getDeclaringClass() == base;
+        }
+        catch (NoSuchMethodException e)
+        {
+            return false;
+        }
+    }
+}
@@ -16,6 +16,7 @@ import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.entity.DispenserBlockEntity;
 import net.minecraft.world.level.block.entity.Hopper;
 import net.minecraft.world.level.block.entity.HopperBlockEntity;
+import net.minecraftforge.common.capabilities.BlockCapabilityCache;
 import net.minecraftforge.common.capabilities.ForgeCapabilities;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -139,6 +140,29 @@ public class VanillaInventoryCodeHooks
 
     private static ItemStack putStackInInventoryAllSlots(BlockEntity source, Object destination, IItemHandler destInventory, ItemStack stack)
     {
+        if (destInventory instanceof IBulkItemHandler bulk && bulk.supportsBulkInsertion())
+        {
+            // Only matching and empty slots can accept the stack, visit them in the same order as the loop below
+            int[] matching = bulk.findSlots(stack);
+            int next = 0;
+            int empty = bulk.findEmptySlot(0);
+            while (!stack.isEmpty() && (next < matching.length || empty >= 0))
+            {
+                int slot;
+                if (empty < 0 || (next < matching.length && matching[next] < empty))
+                {
+                    slot = matching[next++];
+                }
+                else
+                {
+                    slot = empty;
+                    empty = bulk.findEmptySlot(empty + 1);
+                }
+                stack = insertStack(source, destination, destInventory, stack, slot);
+            }
+            return stack;
+        }
+
         for (int slot = 0; slot < destInventory.getSlots() && !stack.isEmpty(); slot++)
         {
             stack = insertStack(source, destination, destInventory, stack, slot);
@@ -206,6 +230,13 @@ public class VanillaInventoryCodeHooks
 
     private static boolean isFull(IItemHandler itemHandler)
     {
+        if (itemHandler instanceof IBulkItemHandler bulk && bulk.supportsBulkInsertion())
+        {
+            // Only a shortcut, every other case is left to the loop below
+            int empty = bulk.findEmptySlot(0);
+            if (empty >= 0 && itemHandler.getSlotLimit(empty) > 0)
+                return false;
+        }
         for (int slot = 0; slot < itemHandler.getSlots(); slot++)
         {
             ItemStack stackInSlot = itemHandler.getStackInSlot(slot);
@@ -236,18 +267,12 @@ public class VanillaInventoryCodeHooks
         int j = Mth.floor(y);
         int k = Mth.floor(z);
         BlockPos blockpos = new BlockPos(i, j, k);
-        net.minecraft.world.level.block.state.BlockState state = worldIn.getBlockState(blockpos);
-
-        if (state.hasBlockEntity())
-        {
-            BlockEntity blockEntity = worldIn.getBlockEntity(blockpos);
-            if (blockEntity != null)
-            {
-                return blockEntity.getCapability(ForgeCapabilities.ITEM_HANDLER, side)
-                    .map(capability -> ImmutablePair.<IItemHandler, Object>of(capability, blockEntity));
-            }
-        }
+        BlockCapabilityCache cache = BlockCapabilityCache.of(worldIn);
 
-        return Optional.empty();
+        return cache.getCapability(blockpos, side, ForgeCapabilities.ITEM_HANDLER)
+            .map(capability -> {
+                BlockEntity blockEntity = cache.getCachedBlockEntity(blockpos);
+                return ImmutablePair.<IItemHandler, Object>of(capability, blockEntity != null ? blockEntity : worldIn.getBlockEntity(blockpos));
+            });
     }
 }
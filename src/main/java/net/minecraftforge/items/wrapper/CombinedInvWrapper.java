@@ -5,13 +5,18 @@
 
 package net.minecraftforge.items.wrapper;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.items.IBulkItemHandler;
 import net.minecraftforge.items.IItemHandlerModifiable;
+import net.minecraftforge.items.ItemHandlerHelper;
+import net.minecraftforge.items.SlotMethodCheck;
 import org.jetbrains.annotations.NotNull;
 
 // combines multiple IItemHandlerModifiable into one interface
-public class CombinedInvWrapper implements IItemHandlerModifiable
+public class CombinedInvWrapper implements IItemHandlerModifiable, IBulkItemHandler
 {
+    private static final ClassValue<Boolean> DIRECT_SLOTS = new SlotMethodCheck(CombinedInvWrapper.class);
 
     protected final IItemHandlerModifiable[] itemHandler; // the handlers
     protected final int[] baseIndex; // index-offsets of the different handlers
@@ -33,17 +38,21 @@ public class CombinedInvWrapper implements IItemHandlerModifiable
     // returns the handler index for the slot
     protected int getIndexForSlot(int slot)
     {
-        if (slot < 0)
+        if (slot < 0 || slot >= slotCount)
             return -1;
 
-        for (int i = 0; i < baseIndex.length; i++)
+        // first handler whose end is past the slot, handlers without slots share their end with the previous one
+        int low = 0;
+        int high = baseIndex.length - 1;
+        while (low < high)
         {
-            if (slot - baseIndex[i] < 0)
-            {
-                return i;
-            }
+            int mid = (low + high) >>> 1;
+            if (baseIndex[mid] > slot)
+                high = mid;
+            else
+                low = mid + 1;
         }
-        return -1;
+        return low;
     }
 
     protected IItemHandlerModifiable getHandlerFromIndex(int index)
@@ -109,6 +118,79 @@ public class CombinedInvWrapper implements IItemHandlerModifiable
         return handler.extractItem(slot, amount, simulate);
     }
 
+    @Override
+    public int[] findSlots(@NotNull ItemStack stack)
+    {
+        IntArrayList ret = new IntArrayList();
+        if (stack.isEmpty())
+            return ret.toIntArray();
+        for (int index = 0; index < itemHandler.length; index++)
+        {
+            IItemHandlerModifiable handler = itemHandler[index];
+            int offset = getSlotOffset(index);
+            if (handler instanceof IBulkItemHandler bulk)
+            {
+                for (int slot : bulk.findSlots(stack))
+                    ret.add(slot + offset);
+            }
+            else
+            {
+                for (int slot = 0; slot < handler.getSlots(); slot++)
+                {
+                    if (ItemHandlerHelper.canItemStacksStack(handler.getStackInSlot(slot), stack))
+                        ret.add(slot + offset);
+                }
+            }
+        }
+        return ret.toIntArray();
+    }
+
+    @Override
+    public int findEmptySlot(int fromSlot)
+    {
+        fromSlot = Math.max(fromSlot, 0);
+        for (int index = getIndexForSlot(fromSlot); index >= 0 && index < itemHandler.length; index++)
+        {
+            IItemHandlerModifiable handler = itemHandler[index];
+            int offset = getSlotOffset(index);
+            int from = Math.max(fromSlot - offset, 0);
+            if (handler instanceof IBulkItemHandler bulk)
+            {
+                int slot = bulk.findEmptySlot(from);
+                if (slot >= 0)
+                    return slot + offset;
+            }
+            else
+            {
+                for (int slot = from; slot < handler.getSlots(); slot++)
+                {
+                    if (handler.getStackInSlot(slot).isEmpty())
+                        return slot + offset;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean supportsBulkInsertion()
+    {
+        if (!DIRECT_SLOTS.get(getClass()))
+            return false;
+        for (IItemHandlerModifiable handler : itemHandler)
+        {
+            if (!(handler instanceof IBulkItemHandler bulk) || !bulk.supportsBulkInsertion())
+                return false;
+        }
+        return true;
+    }
+
+    // the first combined slot of the handler at the index
+    private int getSlotOffset(int index)
+    {
+        return index == 0 ? 0 : baseIndex[index - 1];
+    }
+
     @Override
     public int getSlotLimit(int slot)
     {
@@ -6,15 +6,20 @@
 package net.minecraftforge.items.wrapper;
 
 import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.items.IBulkItemHandler;
 import net.minecraftforge.items.IItemHandlerModifiable;
+import net.minecraftforge.items.ItemHandlerHelper;
+import net.minecraftforge.items.SlotMethodCheck;
 import org.jetbrains.annotations.NotNull;
 
 /**
  * A wrapper that composes another IItemHandlerModifiable, exposing only a range of the composed slots.
  * Shifting of slot indices is handled automatically for you.
  */
-public class RangedWrapper implements IItemHandlerModifiable {
+public class RangedWrapper implements IItemHandlerModifiable, IBulkItemHandler {
+    private static final ClassValue<Boolean> DIRECT_SLOTS = new SlotMethodCheck(RangedWrapper.class);
 
     private final IItemHandlerModifiable compose;
     private final int minSlot;
@@ -101,6 +106,54 @@ public class RangedWrapper implements IItemHandlerModifiable {
         return false;
     }
 
+    @Override
+    public int[] findSlots(@NotNull ItemStack stack)
+    {
+        IntArrayList ret = new IntArrayList();
+        if (stack.isEmpty())
+            return ret.toIntArray();
+        if (compose instanceof IBulkItemHandler bulk)
+        {
+            for (int slot : bulk.findSlots(stack))
+            {
+                if (slot >= minSlot && slot < maxSlot)
+                    ret.add(slot - minSlot);
+            }
+        }
+        else
+        {
+            for (int slot = minSlot; slot < maxSlot; slot++)
+            {
+                if (ItemHandlerHelper.canItemStacksStack(compose.getStackInSlot(slot), stack))
+                    ret.add(slot - minSlot);
+            }
+        }
+        return ret.toIntArray();
+    }
+
+    @Override
+    public int findEmptySlot(int fromSlot)
+    {
+        int from = Math.max(fromSlot, 0) + minSlot;
+        if (compose instanceof IBulkItemHandler bulk)
+        {
+            int slot = bulk.findEmptySlot(from);
+            return slot >= 0 && slot < maxSlot ? slot - minSlot : -1;
+        }
+        for (int slot = from; slot < maxSlot; slot++)
+        {
+            if (compose.getStackInSlot(slot).isEmpty())
+                return slot - minSlot;
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean supportsBulkInsertion()
+    {
+        return DIRECT_SLOTS.get(getClass()) && compose instanceof IBulkItemHandler bulk && bulk.supportsBulkInsertion();
+    }
+
     private boolean checkSlot(int localSlot)
     {
         return localSlot + minSlot < maxSlot;
@@ -5,41 +5,123 @@
 
 package net.minecraftforge.network;
 
+import com.google.common.hash.Hashing;
 import net.minecraft.client.Minecraft;
 import net.minecraftforge.fml.config.ConfigTracker;
 import net.minecraftforge.fml.config.ModConfig;
 import org.apache.commons.lang3.tuple.Pair;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Sends the server configs to clients during login.
+ * <p>
+ * The server keeps the contents of every config file in memory, together with a hash of it. An entry is only read
+ * again once the file's size or modification time changed, which covers configs being saved or reloaded, so logins
+ * only check the file's attributes instead of reading it. Clients remember the configs they received, and report
+ * their hashes when connecting, so that a server sending a {@link HandshakeMessages.S2CHandshakeBundle} can skip the
+ * ones they already hold.
+ */
 public class ConfigSync {
     public static final ConfigSync INSTANCE = new ConfigSync(ConfigTracker.INSTANCE);
     private final ConfigTracker tracker;
+    // Server side, by file name
+    private final Map<String, CachedConfig> payloads = new ConcurrentHashMap<>();
+    // Client side, the last contents received for every file name
+    private final Map<String, CachedConfig> received = new ConcurrentHashMap<>();
 
     private ConfigSync(final ConfigTracker tracker) {
         this.tracker = tracker;
     }
 
     public List<Pair<String, HandshakeMessages.S2CConfigData>> syncConfigs(boolean isLocal) {
-        final Map<String, byte[]> configData = tracker.configSets().get(ModConfig.Type.SERVER).stream().collect(Collectors.toMap(ModConfig::getFileName, mc -> {
-            try {
-                return Files.readAllBytes(mc.getFullPath());
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-        }));
+        final Map<String, byte[]> configData = tracker.configSets().get(ModConfig.Type.SERVER).stream().collect(Collectors.toMap(ModConfig::getFileName, mc -> getPayload(mc).data()));
         return configData.entrySet().stream().map(e->Pair.of("Config "+e.getKey(), new HandshakeMessages.S2CConfigData(e.getKey(), e.getValue()))).collect(Collectors.toList());
     }
 
+    /**
+     * Drops every cached config payload, they are read again on the next login.
+     * Called when the server stops, since the next one may use different files.
+     */
+    public void invalidate() {
+        payloads.clear();
+    }
+
+    private CachedConfig getPayload(ModConfig config) {
+        final Path path = config.getFullPath();
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            CachedConfig cached = payloads.get(config.getFileName());
+            if (cached != null && cached.path().equals(path) && cached.size() == attributes.size() && cached.modified().equals(attributes.lastModifiedTime()))
+                return cached;
+
+            byte[] data = Files.readAllBytes(path);
+            cached = new CachedConfig(path, attributes.lastModifiedTime(), data.length, data, hash(data));
+            payloads.put(config.getFileName(), cached);
+            return cached;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the hash of the cached payload of the given config, or null if it is not cached or has a different size,
+     *         in which case it was read again since the payload of the given size was created.
+     */
+    @Nullable
+    String getPayloadHash(final String fileName, final int size) {
+        CachedConfig cached = payloads.get(fileName);
+        return cached == null || cached.size() != size ? null : cached.hash();
+    }
+
+    static String hash(byte[] data) {
+        return Hashing.sha256().hashBytes(data).toString();
+    }
+
     public void receiveSyncedConfig(final HandshakeMessages.S2CConfigData s2CConfigData, final Supplier<NetworkEvent.Context> contextSupplier) {
+        received.put(s2CConfigData.getFileName(), new CachedConfig(null, null, s2CConfigData.getBytes().length, s2CConfigData.getBytes(), hash(s2CConfigData.getBytes())));
+        applySyncedConfig(s2CConfigData.getFileName(), s2CConfigData.getBytes());
+    }
+
+    /**
+     * Applies the contents previously received for the given config again, used when the server skipped sending it.
+     *
+     * @return false if this client never received that config
+     */
+    boolean reuseSyncedConfig(final String fileName) {
+        CachedConfig cached = received.get(fileName);
+        if (cached == null)
+            return false;
+        applySyncedConfig(fileName, cached.data());
+        return true;
+    }
+
+    /**
+     * @return the hashes of every config this client received before, by file name.
+     */
+    Map<String, String> getReceivedHashes() {
+        Map<String, String> ret = new HashMap<>();
+        received.forEach((name, cached) -> ret.put(name, cached.hash()));
+        return ret;
+    }
+
+    private void applySyncedConfig(final String fileName, final byte[] data) {
         if (!Minecraft.getInstance().isLocalServer()) {
-            Optional.ofNullable(tracker.fileMap().get(s2CConfigData.getFileName())).ifPresent(mc-> mc.acceptSyncedConfig(s2CConfigData.getBytes()));
+            Optional.ofNullable(tracker.fileMap().get(fileName)).ifPresent(mc-> mc.acceptSyncedConfig(data));
         }
     }
+
+    private record CachedConfig(@Nullable Path path, @Nullable FileTime modified, long size, byte[] data, String hash) {}
 }
@@ -8,8 +8,10 @@ package net.minecraftforge.network;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.mojang.authlib.GameProfile;
+import io.netty.buffer.Unpooled;
 import net.minecraft.core.Registry;
 import net.minecraft.network.Connection;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.protocol.handshake.ClientIntentionPacket;
 import net.minecraft.network.protocol.login.ClientboundCustomQueryPacket;
@@ -36,7 +38,6 @@ import java.util.concurrent.CancellationException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
@@ -73,6 +74,12 @@ import java.util.stream.Collectors;
  *
  * <p>Once all packets have been dispatched, we wait for all replies to be received. Once all replies are received, the
  * final login phase will commence.
+ *
+ * <p>Clients announcing support for it in their {@link HandshakeMessages.C2SModListReply} receive all registry snapshots and
+ * server configs as a single compressed {@link HandshakeMessages.S2CHandshakeBundle} instead, which is acknowledged once.
+ * The server keeps sending the remaining login payloads while the client injects the snapshots, the client handles them
+ * once the snapshots are in place. The server waits for the client's mod list reply before it sends the first registry or
+ * config payload, so the order of the login payloads never changes. Older clients get the individual messages as before.
  */
 public class HandshakeHandler
 {
@@ -80,6 +87,8 @@ public class HandshakeHandler
     private static final Logger LOGGER = LogManager.getLogger();
 
     private static final LoginWrapper loginWrapper = new LoginWrapper();
+    // Leaves room for the login wrapper around the payload
+    private static final int MAX_BUNDLE_SIZE = 1048576 - 1024;
 
     static {
     }
@@ -112,6 +121,10 @@ public class HandshakeHandler
     private Map<ResourceLocation, String> registryHashes;
     private boolean negotiationStarted = false;
     private final List<Future<Void>> pendingFutures = new ArrayList<>();
+    // Server side: null until the client's mod list arrived, then whether it accepts a handshake bundle
+    private volatile Boolean clientAcceptsBundle;
+    private Map<String, String> clientConfigHashes = Map.of();
+    private boolean bundleChecked = false;
 
     private HandshakeHandler(Connection networkManager, NetworkDirection side)
     {
@@ -239,6 +252,8 @@ public class HandshakeHandler
         c.get().getNetworkManager().channel().attr(NetworkConstants.FML_CONNECTION_DATA)
                 .set(new ConnectionData(clientModList.getModList().stream().collect(Collectors.toMap(Function.identity(), s -> Pair.of("", ""))), clientModList.getChannels()));
         c.get().setPacketHandled(true);
+        this.clientConfigHashes = clientModList.getConfigHashes();
+        this.clientAcceptsBundle = HandshakeMessages.S2CHandshakeBundle.VERSION.equals(clientModList.getRegistries().get(NetworkConstants.FML_HANDSHAKE_BUNDLE));
         if (!mismatchedChannels.isEmpty()) {
             LOGGER.error(FMLHSMARKER, "Terminating connection with client, mismatched mod list");
             NetworkConstants.handshakeChannel.reply(new HandshakeMessages.S2CChannelMismatchData(mismatchedChannels), c.get());
@@ -282,19 +297,10 @@ public class HandshakeHandler
 
     private boolean handleRegistryLoading(final Supplier<NetworkEvent.Context> contextSupplier) {
         // We use a countdown latch to suspend the impl thread pending the client thread processing the registry data
-        AtomicBoolean successfulConnection = new AtomicBoolean(false);
         AtomicReference<Multimap<ResourceLocation, ResourceLocation>> registryMismatches = new AtomicReference<>();
         CountDownLatch block = new CountDownLatch(1);
         contextSupplier.get().enqueueWork(() -> {
-            LOGGER.debug(FMLHSMARKER, "Injecting registry snapshot from server.");
-            final Multimap<ResourceLocation, ResourceLocation> missingData = GameData.injectSnapshot(registrySnapshots, false, false);
-            LOGGER.debug(FMLHSMARKER, "Snapshot injected.");
-            if (!missingData.isEmpty()) {
-                LOGGER.error(FMLHSMARKER, "Missing registry data for impl connection:\n{}", LogMessageAdapter.adapt(sb->
-                        missingData.forEach((reg, entry)-> sb.append("\t").append(reg).append(": ").append(entry).append('\n'))));
-            }
-            successfulConnection.set(missingData.isEmpty());
-            registryMismatches.set(missingData);
+            registryMismatches.set(injectRegistrySnapshots());
             block.countDown();
         });
         LOGGER.debug(FMLHSMARKER, "Waiting for registries to load.");
@@ -303,15 +309,56 @@ public class HandshakeHandler
         } catch (InterruptedException e) {
             Thread.interrupted();
         }
-        if (successfulConnection.get()) {
+        return checkRegistryLoading(registryMismatches.get(), contextSupplier.get());
+    }
+
+    private Multimap<ResourceLocation, ResourceLocation> injectRegistrySnapshots() {
+        LOGGER.debug(FMLHSMARKER, "Injecting registry snapshot from server.");
+        final Multimap<ResourceLocation, ResourceLocation> missingData = GameData.injectSnapshot(registrySnapshots, false, false);
+        LOGGER.debug(FMLHSMARKER, "Snapshot injected.");
+        if (!missingData.isEmpty()) {
+            LOGGER.error(FMLHSMARKER, "Missing registry data for impl connection:\n{}", LogMessageAdapter.adapt(sb->
+                    missingData.forEach((reg, entry)-> sb.append("\t").append(reg).append(": ").append(entry).append('\n'))));
+        }
+        return missingData;
+    }
+
+    private boolean checkRegistryLoading(final Multimap<ResourceLocation, ResourceLocation> registryMismatches, final NetworkEvent.Context context) {
+        if (registryMismatches != null && registryMismatches.isEmpty()) {
             LOGGER.debug(FMLHSMARKER, "Registry load complete, continuing handshake.");
+            return true;
+        }
+        LOGGER.error(FMLHSMARKER, "Failed to load registry, closing connection.");
+        //Populate the mod mismatch attribute with a new mismatch data instance to indicate that the disconnect happened due to a mod mismatch
+        this.manager.channel().attr(NetworkConstants.FML_MOD_MISMATCH_DATA).set(ModMismatchData.registry(registryMismatches, NetworkHooks.getConnectionData(context.getNetworkManager())));
+        this.manager.disconnect(Component.literal("Failed to synchronize registry data from server, closing connection"));
+        return false;
+    }
+
+    void handleHandshakeBundle(final HandshakeMessages.S2CHandshakeBundle msg, final Supplier<NetworkEvent.Context> contextSupplier) {
+        LOGGER.debug(FMLHSMARKER, "Received handshake bundle with {} registries and {} configs", msg.getRegistries().size(), msg.getConfigs().size());
+        for (HandshakeMessages.S2CConfigData config : msg.getConfigs())
+            ConfigSync.INSTANCE.receiveSyncedConfig(config, contextSupplier);
+        for (String config : msg.getUnchangedConfigs()) {
+            if (!ConfigSync.INSTANCE.reuseSyncedConfig(config))
+                LOGGER.warn(FMLHSMARKER, "Server skipped sending config {}, but it was never received", config);
+        }
+        for (HandshakeMessages.S2CRegistry registry : msg.getRegistries()) {
+            this.registriesToReceive.remove(registry.getRegistryName());
+            this.registrySnapshots.put(registry.getRegistryName(), registry.getSnapshot());
+        }
+        if (!this.registriesToReceive.isEmpty())
+            LOGGER.warn(FMLHSMARKER, "Handshake bundle is missing registries {}", this.registriesToReceive);
+
+        // Later login payloads may decode registry ids, so they are only handled once the snapshots are injected.
+        // The server does not wait for the single acknowledgement, the remaining payloads arrive in the meantime.
+        boolean continueHandshake = handleRegistryLoading(contextSupplier);
+        contextSupplier.get().setPacketHandled(true);
+        if (!continueHandshake) {
+            LOGGER.error(FMLHSMARKER, "Connection closed, not continuing handshake");
         } else {
-            LOGGER.error(FMLHSMARKER, "Failed to load registry, closing connection.");
-            //Populate the mod mismatch attribute with a new mismatch data instance to indicate that the disconnect happened due to a mod mismatch
-            this.manager.channel().attr(NetworkConstants.FML_MOD_MISMATCH_DATA).set(ModMismatchData.registry(registryMismatches.get(), NetworkHooks.getConnectionData(contextSupplier.get().getNetworkManager())));
-            this.manager.disconnect(Component.literal("Failed to synchronize registry data from server, closing connection"));
+            NetworkConstants.handshakeChannel.reply(new HandshakeMessages.C2SAcknowledge(), contextSupplier.get());
         }
-        return successfulConnection.get();
     }
 
     void handleClientAck(final HandshakeMessages.C2SAcknowledge msg, final Supplier<NetworkEvent.Context> contextSupplier) {
@@ -345,7 +392,20 @@ public class HandshakeHandler
             negotiationStarted = true;
         }
 
-        if (packetPosition < messageList.size()) {
+        boolean waitingForClient = false;
+        if (packetPosition < messageList.size() && !bundleChecked && isBundleable(messageList.get(packetPosition))) {
+            // Whether the registries and configs can be bundled depends on the client's mod list reply
+            Boolean acceptsBundle = this.clientAcceptsBundle;
+            if (acceptsBundle == null) {
+                waitingForClient = true;
+            } else {
+                bundleChecked = true;
+                if (acceptsBundle)
+                    bundleRemainingPayloads();
+            }
+        }
+
+        if (packetPosition < messageList.size() && !waitingForClient) {
             NetworkRegistry.LoginPayload message = messageList.get(packetPosition);
 
             LOGGER.debug(FMLHSMARKER, "Sending ticking packet info '{}' to '{}' sequence {}", message.getMessageContext(), message.getChannelName(), packetPosition);
@@ -372,7 +432,7 @@ public class HandshakeHandler
         });
 
         // we're done when sentMessages is empty
-        if (sentMessages.isEmpty() && packetPosition >= messageList.size()-1 && pendingFutures.isEmpty()) {
+        if (!waitingForClient && sentMessages.isEmpty() && packetPosition >= messageList.size()-1 && pendingFutures.isEmpty()) {
             // clear ourselves - we're done!
             this.manager.channel().attr(NetworkConstants.FML_HANDSHAKE_HANDLER).set(null);
             LOGGER.debug(FMLHSMARKER, "Handshake complete!");
@@ -381,6 +441,63 @@ public class HandshakeHandler
         return false;
     }
 
+    private boolean isBundleable(NetworkRegistry.LoginPayload payload)
+    {
+        if (this.manager.isMemoryConnection() || !NetworkConstants.FML_HANDSHAKE_RESOURCE.equals(payload.getChannelName()))
+            return false;
+        FriendlyByteBuf data = payload.getData();
+        if (!data.isReadable())
+            return false;
+        short discriminator = data.getUnsignedByte(data.readerIndex());
+        return discriminator == NetworkInitialization.REGISTRY_INDEX || discriminator == NetworkInitialization.CONFIG_DATA_INDEX;
+    }
+
+    /**
+     * Replaces every registry and config payload not sent yet with a single bundle, unless the bundle would be too large.
+     */
+    private void bundleRemainingPayloads()
+    {
+        List<FriendlyByteBuf> bundled = new ArrayList<>();
+        List<String> unchangedConfigs = new ArrayList<>();
+        List<NetworkRegistry.LoginPayload> remaining = new ArrayList<>(messageList.subList(0, packetPosition));
+        for (int i = packetPosition; i < messageList.size(); i++) {
+            NetworkRegistry.LoginPayload payload = messageList.get(i);
+            if (!isBundleable(payload))
+                remaining.add(payload);
+            else if (!isConfigKnownByClient(payload.getData(), unchangedConfigs))
+                bundled.add(payload.getData());
+        }
+
+        HandshakeMessages.S2CHandshakeBundle bundle = HandshakeMessages.S2CHandshakeBundle.of(bundled, unchangedConfigs);
+        if (bundle.getCompressedSize() > MAX_BUNDLE_SIZE) {
+            LOGGER.debug(FMLHSMARKER, "Handshake bundle of {} bytes is too large, sending {} messages separately", bundle.getCompressedSize(), bundled.size());
+            return;
+        }
+
+        FriendlyByteBuf data = new FriendlyByteBuf(Unpooled.buffer());
+        NetworkConstants.handshakeChannel.encodeMessage(bundle, data);
+        remaining.add(packetPosition, new NetworkRegistry.LoginPayload(data, NetworkConstants.FML_HANDSHAKE_RESOURCE, "Handshake bundle"));
+        LOGGER.debug(FMLHSMARKER, "Bundled {} registry and config messages into {} bytes, {} configs are unchanged", bundled.size(), bundle.getCompressedSize(), unchangedConfigs.size());
+        this.messageList = remaining;
+    }
+
+    /**
+     * Checks if the given encoded message is a config the client holds the same contents of, and collects its name if so.
+     */
+    private boolean isConfigKnownByClient(FriendlyByteBuf data, List<String> unchangedConfigs)
+    {
+        if (this.clientConfigHashes.isEmpty() || data.getUnsignedByte(data.readerIndex()) != NetworkInitialization.CONFIG_DATA_INDEX)
+            return false;
+        // Only the file name and size are read, the hash of the contents is kept by ConfigSync
+        FriendlyByteBuf message = new FriendlyByteBuf(data.slice(data.readerIndex() + 1, data.readableBytes() - 1));
+        String fileName = message.readUtf(32767);
+        String known = this.clientConfigHashes.get(fileName);
+        if (known == null || !known.equals(ConfigSync.INSTANCE.getPayloadHash(fileName, message.readVarInt())))
+            return false;
+        unchangedConfigs.add(fileName);
+        return true;
+    }
+
     /**
      * Helper method to determine if the S2C packet at the given packet position needs a response in form of a packet handled in {@link HandshakeHandler#handleIndexedMessage} for the handshake to progress.
      * @param mgr The impl manager for this connection
@@ -6,6 +6,7 @@
 package net.minecraftforge.network;
 
 import com.google.common.collect.Maps;
+import io.netty.buffer.Unpooled;
 import net.minecraft.core.Registry;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceKey;
@@ -18,8 +19,12 @@ import net.minecraftforge.registries.RegistryManager;
 import org.apache.commons.lang3.tuple.Pair;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.ByteArrayOutputStream;
 import java.util.*;
 import java.util.function.IntSupplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 import java.util.stream.Collectors;
 
 public class HandshakeMessages
@@ -169,19 +174,24 @@ public class HandshakeMessages
         private List<String> mods;
         private Map<ResourceLocation, String> channels;
         private Map<ResourceLocation, String> registries;
+        private Map<String, String> configHashes;
 
         public C2SModListReply()
         {
             this.mods = ModList.get().getMods().stream().map(IModInfo::getModId).collect(Collectors.toList());
             this.channels = NetworkRegistry.buildChannelVersions();
             this.registries = Maps.newHashMap(); //TODO: Fill with known hashes, which requires keeping a file cache
+            // Servers that do not know about handshake bundles never read this map, so it doubles as a feature flag
+            this.registries.put(NetworkConstants.FML_HANDSHAKE_BUNDLE, S2CHandshakeBundle.VERSION);
+            this.configHashes = ConfigSync.INSTANCE.getReceivedHashes();
         }
 
-        private C2SModListReply(List<String> mods, Map<ResourceLocation, String> channels, Map<ResourceLocation, String> registries)
+        private C2SModListReply(List<String> mods, Map<ResourceLocation, String> channels, Map<ResourceLocation, String> registries, Map<String, String> configHashes)
         {
             this.mods = mods;
             this.channels = channels;
             this.registries = registries;
+            this.configHashes = configHashes;
         }
 
         public static C2SModListReply decode(FriendlyByteBuf input)
@@ -201,7 +211,10 @@ public class HandshakeMessages
             for (int x = 0; x < len; x++)
                 registries.put(input.readResourceLocation(), input.readUtf(0x100));
 
-            return new C2SModListReply(mods, channels, registries);
+            // Appended after the original fields, older clients do not send it and older servers do not read it
+            Map<String, String> configHashes = input.isReadable() ? input.readMap(o -> o.readUtf(0x100), o -> o.readUtf(0x100)) : Map.of();
+
+            return new C2SModListReply(mods, channels, registries, configHashes);
         }
 
         public void encode(FriendlyByteBuf output)
@@ -220,6 +233,8 @@ public class HandshakeMessages
                 output.writeResourceLocation(k);
                 output.writeUtf(v, 0x100);
             });
+
+            output.writeMap(configHashes, (o, k) -> o.writeUtf(k, 0x100), (o, v) -> o.writeUtf(v, 0x100));
         }
 
         public List<String> getModList() {
@@ -230,6 +245,13 @@ public class HandshakeMessages
             return this.registries;
         }
 
+        /**
+         * @return the hashes of the server configs the client already holds, by file name.
+         */
+        public Map<String, String> getConfigHashes() {
+            return this.configHashes;
+        }
+
         public Map<ResourceLocation, String> getChannels() {
             return this.channels;
         }
@@ -312,6 +334,123 @@ public class HandshakeMessages
         }
     }
 
+    /**
+     * Server to client bundle of every {@link S2CRegistry} and {@link S2CConfigData} message, compressed together.
+     * Only sent to clients that announced support for it in their {@link C2SModListReply}, and acknowledged once.
+     */
+    public static class S2CHandshakeBundle extends LoginIndexedMessage {
+        static final String VERSION = "1";
+        // Guards against absurd sizes from a broken or malicious server
+        private static final int MAX_UNCOMPRESSED_SIZE = 64 * 1024 * 1024;
+
+        private final List<S2CRegistry> registries;
+        private final List<S2CConfigData> configs;
+        private final List<String> unchangedConfigs;
+        private final int uncompressedSize;
+        private final byte[] compressed;
+
+        private S2CHandshakeBundle(List<S2CRegistry> registries, List<S2CConfigData> configs, List<String> unchangedConfigs, int uncompressedSize, byte[] compressed) {
+            this.registries = registries;
+            this.configs = configs;
+            this.unchangedConfigs = unchangedConfigs;
+            this.uncompressedSize = uncompressedSize;
+            this.compressed = compressed;
+        }
+
+        /**
+         * Bundles already encoded {@link S2CRegistry} and {@link S2CConfigData} messages, including their discriminator.
+         *
+         * @param unchangedConfigs Configs the client already holds the same contents of, it reuses those instead
+         */
+        static S2CHandshakeBundle of(List<FriendlyByteBuf> encodedMessages, List<String> unchangedConfigs) {
+            FriendlyByteBuf raw = new FriendlyByteBuf(Unpooled.buffer());
+            raw.writeVarInt(encodedMessages.size());
+            for (FriendlyByteBuf message : encodedMessages) {
+                raw.writeVarInt(message.readableBytes());
+                raw.writeBytes(message, message.readerIndex(), message.readableBytes());
+            }
+            raw.writeCollection(unchangedConfigs, FriendlyByteBuf::writeUtf);
+
+            byte[] input = new byte[raw.readableBytes()];
+            raw.readBytes(input);
+            raw.release();
+
+            Deflater deflater = new Deflater();
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(input.length / 4);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished())
+                output.write(chunk, 0, deflater.deflate(chunk));
+            deflater.end();
+            return new S2CHandshakeBundle(List.of(), List.of(), unchangedConfigs, input.length, output.toByteArray());
+        }
+
+        int getCompressedSize() {
+            return compressed.length;
+        }
+
+        void encode(final FriendlyByteBuf buffer) {
+            buffer.writeVarInt(this.uncompressedSize);
+            buffer.writeByteArray(this.compressed);
+        }
+
+        public static S2CHandshakeBundle decode(final FriendlyByteBuf buffer) {
+            int size = buffer.readVarInt();
+            if (size < 0 || size > MAX_UNCOMPRESSED_SIZE)
+                throw new IllegalArgumentException("Handshake bundle of " + size + " bytes is too large");
+            byte[] compressed = buffer.readByteArray();
+
+            byte[] raw = new byte[size];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(compressed);
+                int read = 0;
+                while (read < size && !inflater.finished()) {
+                    int n = inflater.inflate(raw, read, size - read);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                        break;
+                    read += n;
+                }
+                if (read != size)
+                    throw new IllegalArgumentException("Handshake bundle is truncated, expected " + size + " bytes but got " + read);
+            } catch (DataFormatException e) {
+                throw new IllegalArgumentException("Handshake bundle is corrupted", e);
+            } finally {
+                inflater.end();
+            }
+
+            FriendlyByteBuf input = new FriendlyByteBuf(Unpooled.wrappedBuffer(raw));
+            List<S2CRegistry> registries = new ArrayList<>();
+            List<S2CConfigData> configs = new ArrayList<>();
+            int count = input.readVarInt();
+            for (int x = 0; x < count; x++) {
+                FriendlyByteBuf message = new FriendlyByteBuf(input.readSlice(input.readVarInt()));
+                short discriminator = message.readUnsignedByte();
+                if (discriminator == NetworkInitialization.REGISTRY_INDEX)
+                    registries.add(S2CRegistry.decode(message));
+                else if (discriminator == NetworkInitialization.CONFIG_DATA_INDEX)
+                    configs.add(S2CConfigData.decode(message));
+                else
+                    throw new IllegalArgumentException("Unexpected message " + discriminator + " in handshake bundle");
+            }
+            List<String> unchangedConfigs = input.readList(o -> o.readUtf(32767));
+            return new S2CHandshakeBundle(registries, configs, unchangedConfigs, size, compressed);
+        }
+
+        public List<S2CRegistry> getRegistries() {
+            return registries;
+        }
+
+        public List<S2CConfigData> getConfigs() {
+            return configs;
+        }
+
+        public List<String> getUnchangedConfigs() {
+            return unchangedConfigs;
+        }
+    }
+
     /**
      * Notifies the client of a channel mismatch on the server, so a {@link net.minecraftforge.client.gui.ModMismatchDisconnectedScreen} is used to notify the user of the disconnection.
      * This packet also sends the data of a channel mismatch (currently, the ids and versions of the mismatched channels) to the client for it to display the correct information in said screen.
@@ -37,6 +37,10 @@ public class NetworkConstants
     static final AttributeKey<ConnectionData> FML_CONNECTION_DATA = AttributeKey.valueOf("fml:conndata");
     static final AttributeKey<ModMismatchData> FML_MOD_MISMATCH_DATA = AttributeKey.valueOf("fml:mismatchdata");
     static final ResourceLocation FML_HANDSHAKE_RESOURCE = new ResourceLocation("fml:handshake");
+    /**
+     * Key announced by clients in {@link HandshakeMessages.C2SModListReply#getRegistries()} when they can receive a {@link HandshakeMessages.S2CHandshakeBundle}.
+     */
+    static final ResourceLocation FML_HANDSHAKE_BUNDLE = new ResourceLocation("fml:handshake_bundle");
     static final ResourceLocation FML_PLAY_RESOURCE = new ResourceLocation("fml:play");
     static final ResourceLocation MC_REGISTER_RESOURCE = new ResourceLocation("minecraft:register");
     static final ResourceLocation MC_UNREGISTER_RESOURCE = new ResourceLocation("minecraft:unregister");
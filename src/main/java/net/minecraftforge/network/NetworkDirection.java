@@ -14,6 +14,7 @@ import net.minecraft.network.protocol.game.ServerboundCustomPayloadPacket;
 import net.minecraft.network.protocol.game.ClientboundCustomPayloadPacket;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraftforge.fml.LogicalSide;
+import net.minecraftforge.server.timings.TickMetrics;
 import org.apache.commons.lang3.tuple.Pair;
 
 import java.util.function.BiFunction;
@@ -76,6 +77,8 @@ public enum NetworkDirection
     @SuppressWarnings("unchecked")
     public <T extends Packet<?>> ICustomPacket<T> buildPacket(Pair<FriendlyByteBuf,Integer> packetData, ResourceLocation channelName)
     {
+        if (logicalSide == LogicalSide.SERVER)
+            TickMetrics.onPacket(channelName, true);
         return this.factory.create(packetData.getLeft(), packetData.getRight(), channelName);
     }
 
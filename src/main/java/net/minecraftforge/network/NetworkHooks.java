@@ -18,9 +18,11 @@ import io.netty.channel.ChannelHandlerContext;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.protocol.game.ClientGamePacketListener;
 import net.minecraftforge.client.ConfigScreenHandler;
+import net.minecraftforge.fml.LogicalSide;
 import net.minecraftforge.fml.util.thread.EffectiveSide;
 import net.minecraftforge.network.ConnectionData.ModMismatchData;
 import net.minecraftforge.network.filters.NetworkFilters;
+import net.minecraftforge.server.timings.TickMetrics;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -75,6 +77,8 @@ public class NetworkHooks
     }
 
     public static boolean onCustomPayload(final ICustomPacket<?> packet, final Connection manager) {
+        if (packet.getDirection().getReceptionSide() == LogicalSide.SERVER)
+            TickMetrics.onPacket(packet.getName(), false);
         return NetworkRegistry.findTarget(packet.getName()).
                 filter(ni->validateSideForProcessing(packet, ni, manager)).
                 map(ni->ni.dispatch(packet.getDirection(), packet, manager)).orElse(Boolean.FALSE);
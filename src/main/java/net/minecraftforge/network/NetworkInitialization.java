@@ -13,6 +13,9 @@ import java.util.Arrays;
 import java.util.List;
 
 class NetworkInitialization {
+    // Discriminators of the messages that may be folded into a handshake bundle
+    static final int REGISTRY_INDEX = 3;
+    static final int CONFIG_DATA_INDEX = 4;
 
     public static SimpleChannel getHandshakeChannel() {
         SimpleChannel handshakeChannel = NetworkRegistry.ChannelBuilder.
@@ -53,7 +56,7 @@ class NetworkInitialization {
                 consumerNetworkThread(HandshakeHandler.indexFirst(HandshakeHandler::handleClientModListOnServer)).
                 add();
 
-        handshakeChannel.messageBuilder(HandshakeMessages.S2CRegistry.class, 3, NetworkDirection.LOGIN_TO_CLIENT).
+        handshakeChannel.messageBuilder(HandshakeMessages.S2CRegistry.class, REGISTRY_INDEX, NetworkDirection.LOGIN_TO_CLIENT).
                 loginIndex(HandshakeMessages.LoginIndexedMessage::getLoginIndex, HandshakeMessages.LoginIndexedMessage::setLoginIndex).
                 decoder(HandshakeMessages.S2CRegistry::decode).
                 encoder(HandshakeMessages.S2CRegistry::encode).
@@ -61,7 +64,7 @@ class NetworkInitialization {
                 consumerNetworkThread(HandshakeHandler.biConsumerFor(HandshakeHandler::handleRegistryMessage)).
                 add();
 
-        handshakeChannel.messageBuilder(HandshakeMessages.S2CConfigData.class, 4, NetworkDirection.LOGIN_TO_CLIENT).
+        handshakeChannel.messageBuilder(HandshakeMessages.S2CConfigData.class, CONFIG_DATA_INDEX, NetworkDirection.LOGIN_TO_CLIENT).
                 loginIndex(HandshakeMessages.LoginIndexedMessage::getLoginIndex, HandshakeMessages.LoginIndexedMessage::setLoginIndex).
                 decoder(HandshakeMessages.S2CConfigData::decode).
                 encoder(HandshakeMessages.S2CConfigData::encode).
@@ -76,6 +79,13 @@ class NetworkInitialization {
                 consumerNetworkThread(HandshakeHandler.biConsumerFor(HandshakeHandler::handleModMismatchData)).
                 add();
 
+        handshakeChannel.messageBuilder(HandshakeMessages.S2CHandshakeBundle.class, 7, NetworkDirection.LOGIN_TO_CLIENT).
+                loginIndex(HandshakeMessages.LoginIndexedMessage::getLoginIndex, HandshakeMessages.LoginIndexedMessage::setLoginIndex).
+                decoder(HandshakeMessages.S2CHandshakeBundle::decode).
+                encoder(HandshakeMessages.S2CHandshakeBundle::encode).
+                consumerNetworkThread(HandshakeHandler.biConsumerFor(HandshakeHandler::handleHandshakeBundle)).
+                add();
+
         return handshakeChannel;
     }
 
@@ -15,16 +15,28 @@ import net.minecraft.resources.ResourceKey;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.server.level.ServerChunkCache;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.entity.EntityTypeTest;
+import net.minecraft.world.phys.AABB;
 import net.minecraftforge.network.simple.SimpleChannel;
 import net.minecraftforge.server.ServerLifecycleHooks;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 /**
  * Means to distribute packets in various ways
+ * <p>
+ * Targets covering a part of a dimension, {@link #NEAR} and {@link #AREA}, look up their players in the entity
+ * sections of the level, which vanilla keeps up to date as players move. Only the sections around the target are
+ * visited, unless the target spans more chunk columns than there are players in the dimension, in which case every
+ * player of the dimension is checked instead.
  *
  * @see SimpleChannel#send(PacketTarget, Object)
  *
@@ -36,31 +48,37 @@ public class PacketDistributor<T> {
      * <br/>
      * {@link #with(Supplier)} Player
      */
-    public static final PacketDistributor<ServerPlayer> PLAYER = new PacketDistributor<>(PacketDistributor::playerConsumer, NetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<ServerPlayer> PLAYER = new PacketDistributor<>(PacketDistributor::playerConsumer, PacketDistributor::playerConnections, NetworkDirection.PLAY_TO_CLIENT);
     /**
      * Send to everyone in the dimension specified in the Supplier
      * <br/>
      * {@link #with(Supplier)} DimensionType
      */
-    public static final PacketDistributor<ResourceKey<Level>> DIMENSION = new PacketDistributor<>(PacketDistributor::playerListDimConsumer, NetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<ResourceKey<Level>> DIMENSION = new PacketDistributor<>(PacketDistributor::playerListDimConsumer, PacketDistributor::dimensionConnections, NetworkDirection.PLAY_TO_CLIENT);
     /**
      * Send to everyone near the {@link TargetPoint} specified in the Supplier
      * <br/>
      * {@link #with(Supplier)} TargetPoint
      */
-    public static final PacketDistributor<TargetPoint> NEAR = new PacketDistributor<>(PacketDistributor::playerListPointConsumer, NetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<TargetPoint> NEAR = new PacketDistributor<>(PacketDistributor::playerListPointConsumer, PacketDistributor::pointConnections, NetworkDirection.PLAY_TO_CLIENT);
+    /**
+     * Send to everyone standing inside the {@link TargetArea} specified in the Supplier
+     * <br/>
+     * {@link #with(Supplier)} TargetArea
+     */
+    public static final PacketDistributor<TargetArea> AREA = new PacketDistributor<>(PacketDistributor::playerListAreaConsumer, PacketDistributor::areaConnections, NetworkDirection.PLAY_TO_CLIENT);
     /**
      * Send to everyone
      * <br/>
      * {@link #noArg()}
      */
-    public static final PacketDistributor<Void> ALL = new PacketDistributor<>(PacketDistributor::playerListAll, NetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<Void> ALL = new PacketDistributor<>(PacketDistributor::playerListAll, PacketDistributor::allConnections, NetworkDirection.PLAY_TO_CLIENT);
     /**
      * Send to the server (CLIENT to SERVER)
      * <br/>
      * {@link #noArg()}
      */
-    public static final PacketDistributor<Void> SERVER = new PacketDistributor<>(PacketDistributor::clientToServer, NetworkDirection.PLAY_TO_SERVER);
+    public static final PacketDistributor<Void> SERVER = new PacketDistributor<>(PacketDistributor::clientToServer, PacketDistributor::serverConnection, NetworkDirection.PLAY_TO_SERVER);
     /**
      * Send to all tracking the Entity in the Supplier
      * <br/>
@@ -78,13 +96,13 @@ public class PacketDistributor<T> {
      * <br/>
      * {@link #with(Supplier)} Chunk
      */
-    public static final PacketDistributor<LevelChunk> TRACKING_CHUNK = new PacketDistributor<>(PacketDistributor::trackingChunk, NetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<LevelChunk> TRACKING_CHUNK = new PacketDistributor<>(PacketDistributor::trackingChunk, PacketDistributor::chunkConnections, NetworkDirection.PLAY_TO_CLIENT);
     /**
      * Send to the supplied list of NetworkManager instances in the Supplier
      * <br/>
      * {@link #with(Supplier)} List of NetworkManager
      */
-    public static final PacketDistributor<List<Connection>> NMLIST = new PacketDistributor<>(PacketDistributor::networkManagerList, NetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<List<Connection>> NMLIST = new PacketDistributor<>(PacketDistributor::networkManagerList, PacketDistributor::networkManagerConnections, NetworkDirection.PLAY_TO_CLIENT);
 
     public static final class TargetPoint {
 
@@ -145,6 +163,34 @@ public class PacketDistributor<T> {
             return ()->tp;
         }
 
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof TargetPoint other))
+                return false;
+            return excluded == other.excluded && Double.compare(x, other.x) == 0 && Double.compare(y, other.y) == 0
+                    && Double.compare(z, other.z) == 0 && Double.compare(r2, other.r2) == 0 && dim == other.dim;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(excluded), x, y, z, r2, dim);
+        }
+
+    }
+
+    /**
+     * An area of interest, every player whose position is inside the box receives the packet.
+     *
+     * @param excluded Player to exclude, or null
+     * @param area The area, in world coordinates
+     * @param dim The dimension of the area
+     */
+    public record TargetArea(@Nullable ServerPlayer excluded, AABB area, ResourceKey<Level> dim) {
+        public TargetArea(final AABB area, final ResourceKey<Level> dim) {
+            this(null, area, dim);
+        }
     }
 
     /**
@@ -156,9 +202,14 @@ public class PacketDistributor<T> {
     public static class PacketTarget {
         private final Consumer<Packet<?>> packetConsumer;
         private final PacketDistributor<?> distributor;
-        PacketTarget(final Consumer<Packet<?>> packetConsumer, final PacketDistributor<?> distributor) {
+        private final Supplier<?> input;
+        @Nullable
+        private final Supplier<List<Connection>> connections;
+        PacketTarget(final Consumer<Packet<?>> packetConsumer, final PacketDistributor<?> distributor, final Supplier<?> input, @Nullable final Supplier<List<Connection>> connections) {
             this.packetConsumer = packetConsumer;
             this.distributor = distributor;
+            this.input = input;
+            this.connections = connections;
         }
 
         public void send(Packet<?> packet) {
@@ -169,13 +220,46 @@ public class PacketDistributor<T> {
             return distributor.direction;
         }
 
+        /**
+         * Returns a key that is equal for every target of the same distributor and an equal input, such as the same
+         * player for {@link #PLAYER}. The input is resolved when this is called.
+         *
+         * @return A key identifying the recipients of this target
+         */
+        public Object getTargetKey() {
+            return new TargetKey(distributor, input.get());
+        }
+
+        /**
+         * Returns the connections a packet sent to this target would currently be sent to. The input is resolved when
+         * this is called.
+         *
+         * @return The connections of the recipients, or null if the distributor can not list them, such as
+         *         {@link #TRACKING_ENTITY}
+         */
+        @Nullable
+        public List<Connection> getConnections() {
+            return connections == null ? null : connections.get();
+        }
+
+        private record TargetKey(PacketDistributor<?> distributor, @Nullable Object input) {}
     }
 
     private final BiFunction<PacketDistributor<T>, Supplier<T>, Consumer<Packet<?>>> functor;
+    @Nullable
+    private final BiFunction<PacketDistributor<T>, Supplier<T>, List<Connection>> connections;
     private final NetworkDirection direction;
 
     public PacketDistributor(BiFunction<PacketDistributor<T>, Supplier<T>, Consumer<Packet<?>>> functor, NetworkDirection direction) {
+        this(functor, null, direction);
+    }
+
+    /**
+     * @param connections Lists the connections a packet would be sent to, used to batch messages per connection
+     */
+    public PacketDistributor(BiFunction<PacketDistributor<T>, Supplier<T>, Consumer<Packet<?>>> functor, @Nullable BiFunction<PacketDistributor<T>, Supplier<T>, List<Connection>> connections, NetworkDirection direction) {
         this.functor = functor;
+        this.connections = connections;
         this.direction = direction;
     }
 
@@ -185,7 +269,7 @@ public class PacketDistributor<T> {
      * @return A curried instance
      */
     public PacketTarget with(Supplier<T> input) {
-        return new PacketTarget(functor.apply(this, input), this);
+        return new PacketTarget(functor.apply(this, input), this, input, connectionLookup(input));
     }
 
     /**
@@ -196,31 +280,111 @@ public class PacketDistributor<T> {
      * @return A curried instance
      */
     public PacketTarget noArg() {
-        return new PacketTarget(functor.apply(this, ()->null), this);
+        final Supplier<T> input = ()->null;
+        return new PacketTarget(functor.apply(this, input), this, input, connectionLookup(input));
+    }
+
+    @Nullable
+    private Supplier<List<Connection>> connectionLookup(final Supplier<T> input) {
+        return connections == null ? null : () -> connections.apply(this, input);
     }
 
     private Consumer<Packet<?>> playerConsumer(final Supplier<ServerPlayer> entityPlayerMPSupplier) {
         return p -> entityPlayerMPSupplier.get().connection.connection.send(p);
     }
+    private List<Connection> playerConnections(final Supplier<ServerPlayer> entityPlayerMPSupplier) {
+        return List.of(entityPlayerMPSupplier.get().connection.connection);
+    }
+
     private Consumer<Packet<?>> playerListDimConsumer(final Supplier<ResourceKey<Level>> dimensionTypeSupplier) {
         return p->getServer().getPlayerList().broadcastAll(p, dimensionTypeSupplier.get());
     }
 
+    private List<Connection> dimensionConnections(final Supplier<ResourceKey<Level>> dimensionTypeSupplier) {
+        final ResourceKey<Level> dim = dimensionTypeSupplier.get();
+        final List<Connection> ret = new ArrayList<>();
+        // Same check as PlayerList.broadcastAll
+        for (ServerPlayer player : getServer().getPlayerList().getPlayers()) {
+            if (player.level().dimension() == dim)
+                ret.add(player.connection.connection);
+        }
+        return ret;
+    }
+
     private Consumer<Packet<?>> playerListAll(final Supplier<Void> voidSupplier) {
         return p -> getServer().getPlayerList().broadcastAll(p);
     }
 
+    private List<Connection> allConnections(final Supplier<Void> voidSupplier) {
+        final List<ServerPlayer> players = getServer().getPlayerList().getPlayers();
+        final List<Connection> ret = new ArrayList<>(players.size());
+        for (ServerPlayer player : players)
+            ret.add(player.connection.connection);
+        return ret;
+    }
+
     private Consumer<Packet<?>> clientToServer(final Supplier<Void> voidSupplier) {
         return p -> Minecraft.getInstance().getConnection().send(p);
     }
 
+    private List<Connection> serverConnection(final Supplier<Void> voidSupplier) {
+        return List.of(Minecraft.getInstance().getConnection().getConnection());
+    }
+
     private Consumer<Packet<?>> playerListPointConsumer(final Supplier<TargetPoint> targetPointSupplier) {
         return p -> {
             final TargetPoint tp = targetPointSupplier.get();
-            getServer().getPlayerList().broadcast(tp.excluded, tp.x, tp.y, tp.z, tp.r2, tp.dim, p);
+            forPlayersNear(tp, player -> player.connection.send(p));
+        };
+    }
+
+    private List<Connection> pointConnections(final Supplier<TargetPoint> targetPointSupplier) {
+        final List<Connection> ret = new ArrayList<>();
+        forPlayersNear(targetPointSupplier.get(), player -> ret.add(player.connection.connection));
+        return ret;
+    }
+
+    private void forPlayersNear(TargetPoint tp, Consumer<ServerPlayer> action) {
+        final double r = Math.sqrt(tp.r2);
+        final AABB bounds = new AABB(tp.x - r, tp.y - r, tp.z - r, tp.x + r, tp.y + r, tp.z + r);
+        // Same check as PlayerList.broadcast
+        forPlayersIn(tp.excluded, tp.dim, bounds, player -> player.distanceToSqr(tp.x, tp.y, tp.z) < tp.r2, action);
+    }
+
+    private Consumer<Packet<?>> playerListAreaConsumer(final Supplier<TargetArea> targetAreaSupplier) {
+        return p -> {
+            final TargetArea ta = targetAreaSupplier.get();
+            forPlayersIn(ta.excluded(), ta.dim(), ta.area(), player -> ta.area().contains(player.position()), player -> player.connection.send(p));
         };
     }
 
+    private List<Connection> areaConnections(final Supplier<TargetArea> targetAreaSupplier) {
+        final TargetArea ta = targetAreaSupplier.get();
+        final List<Connection> ret = new ArrayList<>();
+        forPlayersIn(ta.excluded(), ta.dim(), ta.area(), player -> ta.area().contains(player.position()), player -> ret.add(player.connection.connection));
+        return ret;
+    }
+
+    private void forPlayersIn(@Nullable ServerPlayer excluded, ResourceKey<Level> dim, AABB bounds, Predicate<ServerPlayer> filter, Consumer<ServerPlayer> action) {
+        final ServerLevel level = getServer().getLevel(dim);
+        if (level == null)
+            return;
+
+        final Predicate<ServerPlayer> target = player -> player != excluded && filter.test(player);
+        final List<ServerPlayer> players = level.players();
+        // Every chunk column of the bounds is looked up, past this it is cheaper to check every player
+        final double columns = ((bounds.getXsize() / 16.0D) + 2.0D) * ((bounds.getZsize() / 16.0D) + 2.0D);
+        if (columns > players.size()) {
+            for (ServerPlayer player : players) {
+                if (target.test(player))
+                    action.accept(player);
+            }
+            return;
+        }
+
+        level.getEntities(EntityTypeTest.forClass(ServerPlayer.class), bounds, target).forEach(action);
+    }
+
     private Consumer<Packet<?>> trackingEntity(final Supplier<Entity> entitySupplier) {
         return p-> {
             final Entity entity = entitySupplier.get();
@@ -242,10 +406,21 @@ public class PacketDistributor<T> {
         };
     }
 
+    private List<Connection> chunkConnections(final Supplier<LevelChunk> chunkPosSupplier) {
+        final LevelChunk chunk = chunkPosSupplier.get();
+        final List<Connection> ret = new ArrayList<>();
+        ((ServerChunkCache)chunk.getLevel().getChunkSource()).chunkMap.getPlayers(chunk.getPos(), false).forEach(e -> ret.add(e.connection.connection));
+        return ret;
+    }
+
     private Consumer<Packet<?>> networkManagerList(final Supplier<List<Connection>> nmListSupplier) {
         return p -> nmListSupplier.get().forEach(nm->nm.send(p));
     }
 
+    private List<Connection> networkManagerConnections(final Supplier<List<Connection>> nmListSupplier) {
+        return nmListSupplier.get();
+    }
+
     private MinecraftServer getServer() {
         return ServerLifecycleHooks.getCurrentServer();
     }
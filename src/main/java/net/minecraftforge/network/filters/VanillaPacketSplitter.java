@@ -5,16 +5,29 @@
 
 package net.minecraftforge.network.filters;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+import net.minecraft.advancements.AdvancementProgress;
 import net.minecraft.network.*;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.PacketFlow;
 import net.minecraft.network.protocol.game.ClientboundCustomPayloadPacket;
+import net.minecraft.network.protocol.game.ClientboundUpdateAdvancementsPacket;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraftforge.network.*;
 import net.minecraftforge.network.event.EventNetworkChannel;
@@ -25,6 +38,10 @@ import org.apache.logging.log4j.Logger;
 /**
  * A custom payload channel that allows sending vanilla server-to-client packets, even if they would normally
  * be too large for the vanilla protocol. This is achieved by splitting them into multiple custom payload packets.
+ * <p>
+ * Packets with a registered {@linkplain #registerSizeEstimator size estimator} that are known to be small enough are
+ * passed through untouched, every other packet is encoded once into a pooled buffer to measure it. Received parts are
+ * collected per connection into a composite buffer and decoded without copying them together.
  */
 public class VanillaPacketSplitter
 {
@@ -43,6 +60,16 @@ public class VanillaPacketSplitter
     private static final byte STATE_FIRST = 1;
     private static final byte STATE_LAST = 2;
 
+    private static final int MAX_VARINT = 5;
+    private static final Map<Class<?>, ToIntFunction<?>> SIZE_ESTIMATORS = new ConcurrentHashMap<>();
+    private static final AttributeKey<CompositeByteBuf> RECEIVED_PARTS = AttributeKey.valueOf("forge:split_parts");
+    private static final String RELEASE_HANDLER = "forge:split_release";
+
+    static
+    {
+        registerSizeEstimator(ClientboundUpdateAdvancementsPacket.class, VanillaPacketSplitter::estimateAdvancements);
+    }
+
     public static void register()
     {
         Predicate<String> versionCheck = NetworkRegistry.acceptMissingOr(VERSION);
@@ -50,6 +77,16 @@ public class VanillaPacketSplitter
         channel.addListener(VanillaPacketSplitter::onClientPacket);
     }
 
+    /**
+     * Registers a function returning an upper bound of the encoded size of packets of the given type, in bytes, or
+     * {@code -1} if it can not tell for a given packet. Packets whose bound fits the protocol are passed on without
+     * being encoded to measure them first, so the bound must never be smaller than the actual size.
+     */
+    public static <P extends Packet<?>> void registerSizeEstimator(Class<P> type, ToIntFunction<P> estimator)
+    {
+        SIZE_ESTIMATORS.put(type, estimator);
+    }
+
     /**
      * Append the given packet to the given list. If the packet needs to be split, multiple packets will be appened.
      * Otherwise only the packet itself.
@@ -59,61 +96,94 @@ public class VanillaPacketSplitter
         if (heuristicIsDefinitelySmallEnough(packet))
         {
             out.add(packet);
+            return;
         }
-        else
+
+        // Only measuring, a pooled buffer is reused for the next packet unless this one really needs splitting.
+        ByteBuf encoded = PooledByteBufAllocator.DEFAULT.directBuffer();
+        try
         {
-            FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
-            packet.write(buf);
-            if (buf.readableBytes() <= PROTOCOL_MAX)
+            packet.write(new FriendlyByteBuf(encoded));
+            int parts = (int)Math.ceil(((double)encoded.readableBytes()) / PART_SIZE);
+            if (encoded.readableBytes() <= PROTOCOL_MAX || parts == 1)
             {
-                buf.release();
                 out.add(packet);
+                return;
             }
-            else
+
+            // The part packets never release their payload, so they share one unpooled copy instead of holding on to pooled memory.
+            ByteBuf buf = Unpooled.buffer(encoded.readableBytes());
+            buf.writeBytes(encoded);
+            for (int part = 0; part < parts; part++)
             {
-                int parts = (int)Math.ceil(((double)buf.readableBytes()) / PART_SIZE);
-                if (parts == 1)
+                ByteBuf partPrefix;
+                if (part == 0)
                 {
-                    buf.release();
-                    out.add(packet);
+                    partPrefix = Unpooled.buffer(6);
+                    partPrefix.writeByte(STATE_FIRST);
+                    new FriendlyByteBuf(partPrefix).writeVarInt(protocol.getPacketId(direction, packet));
                 }
                 else
                 {
-                    for (int part = 0; part < parts; part++)
-                    {
-                        ByteBuf partPrefix;
-                        if (part == 0)
-                        {
-                            partPrefix = Unpooled.buffer(5);
-                            partPrefix.writeByte(STATE_FIRST);
-                            new FriendlyByteBuf(partPrefix).writeVarInt(protocol.getPacketId(direction, packet));
-                        }
-                        else
-                        {
-                            partPrefix = Unpooled.buffer(1);
-                            partPrefix.writeByte(part == parts - 1 ? STATE_LAST : 0);
-                        }
-                        int partSize = Math.min(PART_SIZE, buf.readableBytes());
-                        ByteBuf partBuf = Unpooled.wrappedBuffer(
-                                partPrefix,
-                                buf.retainedSlice(buf.readerIndex(), partSize)
-                        );
-                        buf.skipBytes(partSize);
-                        out.add(new ClientboundCustomPayloadPacket(CHANNEL, new FriendlyByteBuf(partBuf)));
-                    }
-                    // we retained all the slices, so we do not need this one anymore
-                    buf.release();
+                    partPrefix = Unpooled.buffer(1);
+                    partPrefix.writeByte(part == parts - 1 ? STATE_LAST : 0);
                 }
+                int partSize = Math.min(PART_SIZE, buf.readableBytes());
+                ByteBuf partBuf = Unpooled.wrappedBuffer(
+                        partPrefix,
+                        buf.retainedSlice(buf.readerIndex(), partSize)
+                );
+                buf.skipBytes(partSize);
+                out.add(new ClientboundCustomPayloadPacket(CHANNEL, new FriendlyByteBuf(partBuf)));
             }
+            // we retained all the slices, so we do not need this one anymore
+            buf.release();
+        }
+        finally
+        {
+            encoded.release();
         }
     }
 
+    @SuppressWarnings("unchecked")
     private static boolean heuristicIsDefinitelySmallEnough(Packet<?> packet)
     {
-        return false;
+        ToIntFunction<Packet<?>> estimator = (ToIntFunction<Packet<?>>) SIZE_ESTIMATORS.get(packet.getClass());
+        if (estimator == null)
+            return false;
+        int estimate = estimator.applyAsInt(packet);
+        return estimate >= 0 && estimate <= PROTOCOL_MAX;
+    }
+
+    /**
+     * Upper bound for advancement packets that only update progress, a full sync is always measured.
+     */
+    private static int estimateAdvancements(ClientboundUpdateAdvancementsPacket packet)
+    {
+        if (packet.shouldReset() || !packet.getAdded().isEmpty())
+            return -1;
+
+        long size = 1 + MAX_VARINT + MAX_VARINT + MAX_VARINT;
+        for (ResourceLocation removed : packet.getRemoved())
+            size += utfBound(removed.toString());
+        for (Map.Entry<ResourceLocation, AdvancementProgress> entry : packet.getProgress().entrySet())
+        {
+            size += utfBound(entry.getKey().toString()) + MAX_VARINT;
+            for (String criterion : entry.getValue().getCompletedCriteria())
+                size += utfBound(criterion) + 1 + Long.BYTES;
+            for (String criterion : entry.getValue().getRemainingCriteria())
+                size += utfBound(criterion) + 1;
+            if (size > PROTOCOL_MAX)
+                return -1;
+        }
+        return (int) size;
     }
 
-    private static final List<FriendlyByteBuf> receivedBuffers = new ArrayList<>();
+    private static long utfBound(String value)
+    {
+        // Every char encodes to at most 3 bytes in modified UTF-8
+        return MAX_VARINT + 3L * value.length();
+    }
 
     private static void onClientPacket(NetworkEvent.ServerCustomPayloadEvent event)
     {
@@ -124,36 +194,86 @@ public class VanillaPacketSplitter
         ctx.setPacketHandled(true);
 
         FriendlyByteBuf buf = event.getPayload();
+        Attribute<CompositeByteBuf> received = ctx.attr(RECEIVED_PARTS);
 
         byte state = buf.readByte();
         if (state == STATE_FIRST)
         {
-            if (!receivedBuffers.isEmpty())
+            CompositeByteBuf stale = received.getAndSet(null);
+            if (stale != null)
             {
                 LOGGER.warn("forge:split received out of order - inbound buffer not empty when receiving first");
-                receivedBuffers.clear();
+                stale.release();
+            }
+        }
+
+        CompositeByteBuf parts = received.get();
+        if (parts == null)
+        {
+            if (state != STATE_FIRST)
+            {
+                LOGGER.warn("forge:split received out of order - dropping part without a first part");
+                return;
             }
+            parts = Unpooled.compositeBuffer(Integer.MAX_VALUE);
+            received.set(parts);
+            ChannelPipeline pipeline = ctx.getNetworkManager().channel().pipeline();
+            if (pipeline.get(RELEASE_HANDLER) == null)
+                pipeline.addFirst(RELEASE_HANDLER, PartsReleaser.INSTANCE);
         }
-        buf.retain(); // retain the buffer, it is released after this handler otherwise
-        receivedBuffers.add(buf);
+        // retain the buffer, it is released after this handler otherwise; the composite references it without copying
+        parts.addComponent(true, buf.retain());
+
         if (state == STATE_LAST)
         {
-            FriendlyByteBuf full = new FriendlyByteBuf(Unpooled.wrappedBuffer(receivedBuffers.toArray(new FriendlyByteBuf[0])));
-            int packetId = full.readVarInt();
-            Packet<?> packet = protocol.createPacket(direction, packetId, full);
-            if (packet == null)
+            received.set(null);
+            FriendlyByteBuf full = new FriendlyByteBuf(parts);
+            try
             {
-                LOGGER.error("Received invalid packet ID {} in forge:split", packetId);
+                int packetId = full.readVarInt();
+                Packet<?> packet = protocol.createPacket(direction, packetId, full);
+                if (packet == null)
+                    LOGGER.error("Received invalid packet ID {} in forge:split", packetId);
+                else
+                    ctx.enqueueWork(() -> genericsFtw(packet, event.getSource().get().getNetworkManager().getPacketListener()));
             }
-            else
+            finally
             {
-                receivedBuffers.clear();
                 full.release();
-                ctx.enqueueWork(() -> genericsFtw(packet, event.getSource().get().getNetworkManager().getPacketListener()));
             }
         }
     }
 
+    private static void releaseParts(Channel channel)
+    {
+        CompositeByteBuf parts = channel.attr(RECEIVED_PARTS).getAndSet(null);
+        if (parts != null)
+            parts.release();
+    }
+
+    /**
+     * Releases the parts of a split packet that was still being received when the connection closed.
+     * Added in front of the pipeline, since the vanilla connection handler does not pass channelInactive on.
+     */
+    @ChannelHandler.Sharable
+    private static class PartsReleaser extends ChannelInboundHandlerAdapter
+    {
+        private static final PartsReleaser INSTANCE = new PartsReleaser();
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception
+        {
+            releaseParts(ctx.channel());
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void handlerRemoved(ChannelHandlerContext ctx)
+        {
+            releaseParts(ctx.channel());
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private static <T extends PacketListener> void genericsFtw(Packet<T> pkt, Object listener)
     {
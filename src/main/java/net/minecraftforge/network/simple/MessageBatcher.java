@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) Forge Development LLC and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.minecraftforge.network.simple;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.Connection;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.Packet;
+import net.minecraftforge.network.NetworkDirection;
+import net.minecraftforge.network.PacketDistributor;
+import org.apache.commons.lang3.tuple.Pair;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Gathers the messages a {@link SimpleChannel} sends during a tick, and sends them as bundles at the end of the tick.
+ * <p>
+ * Messages are gathered per {@link Connection}, using the {@linkplain PacketDistributor.PacketTarget#getConnections()
+ * connections} a target resolves to when the message is sent, so every message a player receives within a tick shares
+ * a bundle, whichever targets they were sent through, and keeps the order it was sent in. Targets that can not list
+ * their connections, such as {@link PacketDistributor#TRACKING_ENTITY}, are gathered per
+ * {@linkplain PacketDistributor.PacketTarget#getTargetKey() target} instead, and split the messages sent around them
+ * into separate bundles so the order is still kept.
+ * <p>
+ * Every message is encoded when it is sent, and a message with a coalescing key replaces the previous message of its
+ * type with an equal key for the same recipient, so only the latest one is sent. A bundle holding a single message is
+ * sent as that message, and bundles are split to stay below the size limit of custom payloads.
+ */
+@ApiStatus.Internal
+public final class MessageBatcher {
+    private static final List<MessageBatcher> BATCHERS = new CopyOnWriteArrayList<>();
+    // Leaves room for the bundle's discriminator and message count
+    private static final int MAX_CLIENTBOUND_SIZE = 1048576 - 16;
+    private static final int MAX_SERVERBOUND_SIZE = 32767 - 16;
+
+    private final SimpleChannel channel;
+    // The messages of each direction, in the order they were sent
+    private final Map<NetworkDirection, List<Segment>> segments = new EnumMap<>(NetworkDirection.class);
+
+    MessageBatcher(SimpleChannel channel) {
+        this.channel = channel;
+        BATCHERS.add(this);
+    }
+
+    /**
+     * Sends every message gathered for the given direction, called at the end of the server or client tick.
+     */
+    public static void flushAll(NetworkDirection direction) {
+        for (MessageBatcher batcher : BATCHERS)
+            batcher.flush(direction);
+    }
+
+    /**
+     * Drops every message gathered for the given direction without sending it, called when the server stops or the
+     * client logs out, so nothing is kept for or sent to the next session.
+     */
+    public static void clearAll(NetworkDirection direction) {
+        for (MessageBatcher batcher : BATCHERS) {
+            synchronized (batcher) {
+                batcher.segments.remove(direction);
+            }
+        }
+    }
+
+    void add(PacketDistributor.PacketTarget target, FriendlyByteBuf message, @Nullable Object coalescingKey) {
+        List<Connection> connections = target.getConnections();
+        Object targetKey = connections == null ? target.getTargetKey() : null;
+        // Coalesced messages move to the end, so they stay behind the messages sent before them
+        Object key = coalescingKey == null ? new Object() : coalescingKey;
+
+        synchronized (this) {
+            List<Segment> pending = segments.computeIfAbsent(target.getDirection(), d -> new ArrayList<>());
+            Segment last = pending.isEmpty() ? null : pending.get(pending.size() - 1);
+            if (connections != null) {
+                if (last == null || last.target != null) {
+                    last = new Segment(null);
+                    pending.add(last);
+                }
+                for (Connection connection : connections)
+                    last.add(connection, key, message);
+            } else {
+                if (last == null || last.target == null || !last.recipients.containsKey(targetKey)) {
+                    last = new Segment(target);
+                    pending.add(last);
+                }
+                last.add(targetKey, key, message);
+            }
+        }
+    }
+
+    void flush(NetworkDirection direction) {
+        List<Segment> ready;
+        synchronized (this) {
+            ready = segments.remove(direction);
+        }
+        if (ready == null)
+            return;
+
+        int maxSize = direction == NetworkDirection.PLAY_TO_SERVER ? MAX_SERVERBOUND_SIZE : MAX_CLIENTBOUND_SIZE;
+        for (Segment segment : ready) {
+            segment.recipients.forEach((recipient, messages) -> {
+                List<FriendlyByteBuf> bundle = new ArrayList<>();
+                int size = 0;
+                for (FriendlyByteBuf message : messages.values()) {
+                    int messageSize = FriendlyByteBuf.getVarIntSize(message.readableBytes()) + message.readableBytes();
+                    if (!bundle.isEmpty() && size + messageSize > maxSize) {
+                        send(segment.target, recipient, direction, bundle);
+                        bundle = new ArrayList<>();
+                        size = 0;
+                    }
+                    bundle.add(message);
+                    size += messageSize;
+                }
+                send(segment.target, recipient, direction, bundle);
+            });
+        }
+    }
+
+    private void send(@Nullable PacketDistributor.PacketTarget target, Object recipient, NetworkDirection direction, List<FriendlyByteBuf> messages) {
+        Packet<?> packet;
+        if (messages.size() == 1)
+            // Messages sent to several connections share their buffer, so each packet reads its own view of it
+            packet = direction.buildPacket(Pair.of(new FriendlyByteBuf(messages.get(0).slice()), Integer.MIN_VALUE), channel.getChannelName()).getThis();
+        else
+            packet = channel.toVanillaPacket(new Bundle(messages), direction);
+
+        if (target != null)
+            target.send(packet);
+        else if (((Connection) recipient).isConnected())
+            ((Connection) recipient).send(packet);
+    }
+
+    /**
+     * A run of messages that were sent one after another, either to targets that resolved to connections, or to a
+     * single target that could not.
+     */
+    private static final class Segment {
+        // The target all messages of this segment were sent to, or null if they are gathered per connection
+        @Nullable
+        private final PacketDistributor.PacketTarget target;
+        private final Map<Object, LinkedHashMap<Object, FriendlyByteBuf>> recipients = new LinkedHashMap<>();
+
+        private Segment(@Nullable PacketDistributor.PacketTarget target) {
+            this.target = target;
+        }
+
+        private void add(Object recipient, Object key, FriendlyByteBuf message) {
+            LinkedHashMap<Object, FriendlyByteBuf> messages = recipients.computeIfAbsent(recipient, r -> new LinkedHashMap<>());
+            messages.remove(key);
+            messages.put(key, message);
+        }
+    }
+
+    /**
+     * Several encoded messages of a channel, each prefixed with its length.
+     */
+    record Bundle(List<FriendlyByteBuf> messages) {
+        static void encode(Bundle bundle, FriendlyByteBuf buf) {
+            buf.writeVarInt(bundle.messages().size());
+            for (FriendlyByteBuf message : bundle.messages()) {
+                buf.writeVarInt(message.readableBytes());
+                buf.writeBytes(message, message.readerIndex(), message.readableBytes());
+            }
+        }
+
+        static Bundle decode(FriendlyByteBuf buf) {
+            int count = buf.readVarInt();
+            // The count is not trusted to size the list, a bundle can come from a client
+            List<FriendlyByteBuf> messages = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                FriendlyByteBuf message = new FriendlyByteBuf(Unpooled.buffer(0));
+                message.writeBytes(buf, buf.readVarInt());
+                messages.add(message);
+            }
+            return new Bundle(messages);
+        }
+    }
+}
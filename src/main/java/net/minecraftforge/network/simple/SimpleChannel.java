@@ -10,11 +10,13 @@ import net.minecraft.client.Minecraft;
 import net.minecraft.network.Connection;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.protocol.Packet;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraftforge.network.NetworkDirection;
 import net.minecraftforge.network.NetworkEvent;
 import net.minecraftforge.network.NetworkInstance;
 import net.minecraftforge.network.PacketDistributor;
 import org.apache.commons.lang3.tuple.Pair;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.function.*;
@@ -27,6 +29,9 @@ public class SimpleChannel
     private final Optional<Consumer<NetworkEvent.ChannelRegistrationChangeEvent>> registryChangeConsumer;
     private List<Function<Boolean, ? extends List<? extends Pair<String,?>>>> loginPackets;
     private Map<Class<?>, Boolean> packetsNeedResponse;
+    private final Map<Class<?>, Function<?, ?>> coalescingKeys = new HashMap<>();
+    @Nullable
+    private MessageBatcher batcher;
 
     public SimpleChannel(NetworkInstance instance) {
         this(instance, Optional.empty());
@@ -64,6 +69,10 @@ public class SimpleChannel
         }
     }
 
+    ResourceLocation getChannelName() {
+        return instance.getChannelName();
+    }
+
     public <MSG> int encodeMessage(MSG message, final FriendlyByteBuf target) {
         return this.indexedCodec.build(message, target);
     }
@@ -94,6 +103,7 @@ public class SimpleChannel
 
     /**
      * Send a message to the {@link PacketDistributor.PacketTarget} from a {@link PacketDistributor} instance.
+     * If this channel {@linkplain #enableBatching(int) batches} its messages, play messages are sent at the end of the tick.
      *
      * <pre>
      *     channel.send(PacketDistributor.PLAYER.with(()->player), message)
@@ -104,9 +114,64 @@ public class SimpleChannel
      * @param <MSG> The type of the message
      */
     public <MSG> void send(PacketDistributor.PacketTarget target, MSG message) {
+        if (batcher != null && isPlay(target.getDirection())) {
+            batcher.add(target, toBuffer(message).getLeft(), getCoalescingKey(message));
+            return;
+        }
+        target.send(toVanillaPacket(message, target.getDirection()));
+    }
+
+    /**
+     * Sends a message to the {@link PacketDistributor.PacketTarget} right away, even if this channel
+     * {@linkplain #enableBatching(int) batches} its messages.
+     *
+     * @param target The curried target from a PacketDistributor
+     * @param message The message to send
+     * @param <MSG> The type of the message
+     */
+    public <MSG> void sendNow(PacketDistributor.PacketTarget target, MSG message) {
         target.send(toVanillaPacket(message, target.getDirection()));
     }
 
+    /**
+     * Makes {@link #send(PacketDistributor.PacketTarget, Object)} gather the play messages of this channel, and send
+     * everything sent to the same connection during a tick as one packet at the end of the tick, in the order it was
+     * sent. Messages registered with a {@linkplain MessageBuilder#coalescingKey(Function) coalescing key} only send the
+     * latest message per key.
+     * <p>
+     * Batched messages arrive after any packet sent directly in the same tick. The bundles are decoded with a message
+     * registered at the given index, so both sides have to enable batching with the same index, which should be
+     * reflected in the channel's protocol version.
+     *
+     * @param bundleIndex The index of the bundle message in the indexed codec
+     */
+    public void enableBatching(int bundleIndex) {
+        if (batcher != null)
+            throw new IllegalStateException("Batching is already enabled on channel " + instance.getChannelName());
+        registerMessage(bundleIndex, MessageBatcher.Bundle.class, MessageBatcher.Bundle::encode, MessageBatcher.Bundle::decode, this::handleBundle);
+        batcher = new MessageBatcher(this);
+    }
+
+    private void handleBundle(MessageBatcher.Bundle bundle, Supplier<NetworkEvent.Context> context) {
+        for (FriendlyByteBuf message : bundle.messages())
+            this.indexedCodec.consume(message, Integer.MIN_VALUE, context);
+        context.get().setPacketHandled(true);
+    }
+
+    private static boolean isPlay(NetworkDirection direction) {
+        return direction == NetworkDirection.PLAY_TO_CLIENT || direction == NetworkDirection.PLAY_TO_SERVER;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    private <MSG> Object getCoalescingKey(MSG message) {
+        Function<MSG, ?> keyFunction = (Function<MSG, ?>) coalescingKeys.get(message.getClass());
+        if (keyFunction == null)
+            return null;
+        Object key = keyFunction.apply(message);
+        return key == null ? null : Pair.of(message.getClass(), key);
+    }
+
     public <MSG> Packet<?> toVanillaPacket(MSG message, NetworkDirection direction)
     {
         return direction.buildPacket(toBuffer(message), instance.getChannelName()).getThis();
@@ -162,6 +227,7 @@ public class SimpleChannel
         private Function<Boolean, List<Pair<String, MSG>>> loginPacketGenerators;
         private Optional<NetworkDirection> networkDirection;
         private boolean needsResponse = true;
+        private Function<MSG, ?> coalescingKey;
 
         private static <MSG> MessageBuilder<MSG> forType(final SimpleChannel channel, final Class<MSG> type, int id, NetworkDirection networkDirection) {
             MessageBuilder<MSG> builder = new MessageBuilder<>();
@@ -228,6 +294,19 @@ public class SimpleChannel
             return this;
         }
 
+        /**
+         * Set the coalescing key of this message, used when the channel {@linkplain SimpleChannel#enableBatching(int)
+         * batches} its messages. Of the messages with an equal key sent to the same connection during a tick, only the
+         * latest one is sent. Messages whose key is null are always sent.
+         *
+         * @param coalescingKey Returns the key of a message, such as the position of the machine it describes
+         * @return The message builder, for chaining.
+         */
+        public MessageBuilder<MSG> coalescingKey(Function<MSG, ?> coalescingKey) {
+            this.coalescingKey = coalescingKey;
+            return this;
+        }
+
         /**
          * Marks this packet as not needing a response when sent to the client
          */
@@ -308,6 +387,9 @@ public class SimpleChannel
                 this.channel.loginPackets.add(this.loginPacketGenerators);
             }
             this.channel.packetsNeedResponse.put(this.type, this.needsResponse);
+            if (this.coalescingKey != null) {
+                this.channel.coalescingKeys.put(this.type, this.coalescingKey);
+            }
         }
     }
 }
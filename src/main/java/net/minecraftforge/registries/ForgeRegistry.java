@@ -12,6 +12,8 @@ import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.DynamicOps;
 import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import net.minecraft.core.Holder;
 import net.minecraft.core.HolderSet;
 import net.minecraft.core.Registry;
@@ -73,6 +75,9 @@ public class ForgeRegistry<V> implements IForgeRegistryInternal<V>, IForgeRegist
 
     private V defaultValue = null;
     boolean isFrozen = false;
+    // Read-only ID lookup tables, built on first lookup once the registry is frozen and dropped by any change to the IDs
+    @Nullable
+    private volatile IdTable<V> idTable;
 
     private final ResourceLocation name;
     private final ResourceKey<Registry<V>> key;
@@ -320,6 +325,15 @@ public class ForgeRegistry<V> implements IForgeRegistryInternal<V>, IForgeRegist
 
     public int getID(V value)
     {
+        IdTable<V> table = getIdTable();
+        if (table != null)
+        {
+            int ret = table.idsByValue.getInt(value);
+            if (ret == -1 && this.defaultValue != null)
+                ret = table.idsByValue.getInt(this.defaultValue);
+            return ret;
+        }
+
         Integer ret = this.ids.inverse().get(value);
         if (ret == null && this.defaultValue != null)
             ret = this.ids.inverse().get(this.defaultValue);
@@ -343,10 +357,29 @@ public class ForgeRegistry<V> implements IForgeRegistryInternal<V>, IForgeRegist
     @Override
     public V getValue(int id)
     {
-        V ret = this.ids.get(id);
+        IdTable<V> table = getIdTable();
+        V ret;
+        if (table != null)
+            ret = id >= 0 && id < table.valuesById.length ? table.valuesById[id] : null;
+        else
+            ret = this.ids.get(id);
         return ret == null ? this.defaultValue : ret;
     }
 
+    /**
+     * @return the ID lookup tables, or null while the registry is not frozen and the IDs may still change.
+     */
+    @Nullable
+    private IdTable<V> getIdTable()
+    {
+        if (!this.isFrozen)
+            return null;
+        IdTable<V> table = this.idTable;
+        if (table == null)
+            this.idTable = table = IdTable.build(this.ids);
+        return table;
+    }
+
     @Nullable
     public ResourceKey<V> getKey(int id)
     {
@@ -431,6 +464,7 @@ public class ForgeRegistry<V> implements IForgeRegistryInternal<V>, IForgeRegist
         this.names.put(key, value);
         this.keys.put(rkey, value);
         this.ids.put(idToUse, value);
+        this.idTable = null;
         this.availabilityMap.set(idToUse);
         this.owners.put(new OverrideOwner<V>(owner == null ? key.getNamespace() : owner, rkey), value);
 
@@ -630,6 +664,7 @@ public class ForgeRegistry<V> implements IForgeRegistryInternal<V>, IForgeRegist
         }
 
         this.ids.clear();
+        this.idTable = null;
         this.names.clear();
         this.keys.clear();
         this.availabilityMap.clear(0, this.availabilityMap.length());
@@ -694,6 +729,7 @@ public class ForgeRegistry<V> implements IForgeRegistryInternal<V>, IForgeRegist
         this.aliases.clear();
 
         this.ids.clear();
+        this.idTable = null;
         this.names.clear();
         this.keys.clear();
         this.availabilityMap.clear(0, this.availabilityMap.length());
@@ -716,6 +752,7 @@ public class ForgeRegistry<V> implements IForgeRegistryInternal<V>, IForgeRegist
                 throw new IllegalStateException("Removed a entry that did not have an associated RegistryKey: " + key + " " + value.toString() + " This should never happen unless hackery!");
 
             Integer id = this.ids.inverse().remove(value);
+            this.idTable = null;
             if (id == null)
                 throw new IllegalStateException("Removed a entry that did not have an associated id: " + key + " " + value.toString() + " This should never happen unless hackery!");
 
@@ -1151,4 +1188,33 @@ public class ForgeRegistry<V> implements IForgeRegistryInternal<V>, IForgeRegist
     }
 
     private record OverrideOwner<V>(String owner, ResourceKey<V> key){};
+
+    private static final class IdTable<V>
+    {
+        private final V[] valuesById;
+        private final Reference2IntMap<V> idsByValue;
+
+        private IdTable(V[] valuesById, Reference2IntMap<V> idsByValue)
+        {
+            this.valuesById = valuesById;
+            this.idsByValue = idsByValue;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> IdTable<V> build(BiMap<Integer, V> ids)
+        {
+            int size = 0;
+            for (int id : ids.keySet())
+                size = Math.max(size, id + 1);
+
+            V[] values = (V[]) new Object[size];
+            Reference2IntOpenHashMap<V> byValue = new Reference2IntOpenHashMap<>(ids.size());
+            byValue.defaultReturnValue(-1);
+            ids.forEach((id, value) -> {
+                values[id] = value;
+                byValue.put(value, id.intValue());
+            });
+            return new IdTable<>(values, byValue);
+        }
+    }
 }
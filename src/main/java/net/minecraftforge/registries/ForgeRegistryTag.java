@@ -5,6 +5,7 @@
 
 package net.minecraftforge.registries;
 
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import net.minecraft.Util;
 import net.minecraft.core.Holder;
 import net.minecraft.core.HolderSet;
@@ -18,6 +19,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
 import java.util.Spliterator;
 import java.util.stream.Stream;
 
@@ -28,6 +30,9 @@ class ForgeRegistryTag<V> implements ITag<V>
     private HolderSet<V> holderSet;
     @Nullable
     private List<V> contents;
+    // Registry entries are singletons, so membership is checked by identity
+    @Nullable
+    private Set<V> members;
 
     ForgeRegistryTag(TagKey<V> key)
     {
@@ -74,7 +79,7 @@ class ForgeRegistryTag<V> implements ITag<V>
     @Override
     public boolean contains(V value)
     {
-        return this.getContents().contains(value);
+        return this.getMembers().contains(value);
     }
 
     @Override
@@ -97,10 +102,24 @@ class ForgeRegistryTag<V> implements ITag<V>
         return this.contents == null ? List.of() : this.contents;
     }
 
+    private Set<V> getMembers()
+    {
+        Set<V> members = this.members;
+        if (members == null)
+        {
+            List<V> contents = this.getContents();
+            members = contents.isEmpty() ? Set.of() : new ReferenceOpenHashSet<>(contents);
+            if (this.holderSet != null)
+                this.members = members;
+        }
+        return members;
+    }
+
     void bind(@Nullable HolderSet<V> holderSet)
     {
         this.holderSet = holderSet;
         this.contents = null;
+        this.members = null;
     }
 
     @Override
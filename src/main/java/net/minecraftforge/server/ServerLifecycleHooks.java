@@ -32,15 +32,19 @@ import net.minecraftforge.fml.config.ConfigTracker;
 import net.minecraftforge.fml.config.ModConfig;
 import net.minecraftforge.forgespi.language.IModInfo;
 import net.minecraftforge.forgespi.locating.IModFile;
+import net.minecraftforge.network.ConfigSync;
 import net.minecraftforge.network.ConnectionType;
 import net.minecraftforge.network.NetworkConstants;
+import net.minecraftforge.network.NetworkDirection;
 import net.minecraftforge.network.NetworkHooks;
 import net.minecraftforge.network.NetworkRegistry;
+import net.minecraftforge.network.simple.MessageBatcher;
 import net.minecraftforge.registries.ForgeRegistries;
 import net.minecraftforge.registries.ForgeRegistries.Keys;
 import net.minecraftforge.registries.GameData;
 import net.minecraftforge.resource.PathPackResources;
 import net.minecraftforge.server.permission.PermissionAPI;
+import net.minecraftforge.server.timings.TickMetrics;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.Marker;
@@ -122,6 +126,9 @@ public class ServerLifecycleHooks
     {
         if (!server.isDedicatedServer()) GameData.revertToFrozen();
         MinecraftForge.EVENT_BUS.post(new ServerStoppedEvent(server));
+        MessageBatcher.clearAll(NetworkDirection.PLAY_TO_CLIENT);
+        TickMetrics.stop();
+        ConfigSync.INSTANCE.invalidate();
         currentServer = null;
         LogicalSidedProvider.setServer(null);
         CountDownLatch latch = exitLatch;
@@ -5,66 +5,160 @@
 
 package net.minecraftforge.server.command;
 
-import java.util.ArrayDeque;
-import java.util.Queue;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerChunkCache;
 import net.minecraft.server.level.ServerLevel;
-import net.minecraft.world.level.chunk.ChunkStatus;
-import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.saveddata.SavedData;
+import net.minecraftforge.common.WorldWorkerManager;
 import net.minecraftforge.common.WorldWorkerManager.IWorker;
+import org.jetbrains.annotations.Nullable;
 
+/**
+ * Pregenerates chunks in a spiral around a center chunk.
+ * <p>
+ * Positions are produced lazily, and a bounded window of chunks is generated concurrently by holding a
+ * short-lived chunk ticket on each of them; the ticket is released as soon as the chunk is fully generated so it
+ * can be saved and unloaded. New chunks are only requested while the number of loaded chunks, the number of chunks
+ * waiting to be saved and the heap usage stay below a threshold. Progress is stored in the level's saved data, and an
+ * unfinished run resumes when the server starts again.
+ */
 public class ChunkGenWorker implements IWorker
 {
+    private static final TicketType<ChunkPos> PREGEN_TICKET = TicketType.create("forge:pregen", Comparator.comparingLong(ChunkPos::toLong));
+    private static final String DATA_NAME = "forge_pregen";
+    // Upper bound on the extra chunks a run may keep loaded (including partially generated neighbours) before pausing.
+    private static final int MAX_EXTRA_LOADED_CHUNKS = 8192;
+    private static final double MAX_HEAP_USAGE = 0.85;
+    // Chunks waiting to be saved before they unload; generating faster than they are written only grows this.
+    private static final int MAX_PENDING_UNLOADS = 1024;
+    private static final Map<ServerLevel, ChunkGenWorker> ACTIVE = new WeakHashMap<>();
+
     private final CommandSourceStack listener;
     protected final BlockPos start;
     protected final int total;
     private final ServerLevel dim;
-    private final Queue<BlockPos> queue;
     private final int notificationFrequency;
+    private final int window;
+    private final Spiral spiral;
+    private final long[] inFlight;
+    private final int[] inFlightIndex;
+    private int inFlightCount = 0;
+    private int submitted = 0;
+    private int completed = 0;
     private int lastNotification = 0;
     private long lastNotifcationTime = 0;
     private int genned = 0;
-    private Boolean keepingLoaded;
+    private int baselineLoaded = -1;
+    private boolean cancelled = false;
+    private boolean finished = false;
 
     public ChunkGenWorker(CommandSourceStack listener, BlockPos start, int total, ServerLevel dim, int interval)
+    {
+        this(listener, start, total, dim, interval, 0);
+    }
+
+    private ChunkGenWorker(CommandSourceStack listener, BlockPos start, int total, ServerLevel dim, int interval, int resumeFrom)
     {
         this.listener = listener;
         this.start = start;
         this.total = total;
         this.dim  = dim;
-        this.queue = buildQueue();
         this.notificationFrequency = interval != -1 ? interval : Math.max(total / 20, 100); //Every 5% or every 100, whichever is more.
         this.lastNotifcationTime = System.currentTimeMillis(); //We also notify at least once every 60 seconds, to show we haven't froze.
+        this.window = Math.max(4, Runtime.getRuntime().availableProcessors() * 4);
+        this.inFlight = new long[window];
+        this.inFlightIndex = new int[window];
+        this.spiral = new Spiral(start.getX(), start.getZ());
+        for (int i = 0; i < resumeFrom; i++)
+            this.spiral.next();
+        this.submitted = this.completed = resumeFrom;
     }
 
-    protected Queue<BlockPos> buildQueue()
+    /**
+     * Starts a new pregeneration run, unless one is already running in the same dimension.
+     *
+     * @return the started worker, or null if the dimension is already being generated
+     */
+    @Nullable
+    public static ChunkGenWorker start(CommandSourceStack listener, BlockPos start, int total, ServerLevel dim, int interval)
     {
-        Queue<BlockPos> ret = new ArrayDeque<BlockPos>();
-        ret.add(start);
-
-        //This *should* spiral outwards, starting on right side, down, left, up, right, but hey we'll see!
-        int radius = 1;
-        while (ret.size() < total)
+        synchronized (ACTIVE)
         {
-            for (int q = -radius + 1; q <= radius && ret.size() < total; q++)
-                ret.add(start.offset(radius, 0, q));
+            if (ACTIVE.containsKey(dim))
+                return null;
+            ChunkGenWorker worker = new ChunkGenWorker(listener, start, total, dim, interval);
+            worker.getProgress().set(start, total, interval, 0);
+            ACTIVE.put(dim, worker);
+            WorldWorkerManager.addWorker(worker);
+            return worker;
+        }
+    }
 
-            for (int q = radius - 1; q >= -radius && ret.size() < total; q--)
-                ret.add(start.offset(q, 0, radius));
+    /**
+     * Cancels the run in the given dimension, forgetting its progress.
+     *
+     * @return false if there was no run in that dimension
+     */
+    public static boolean cancel(ServerLevel dim)
+    {
+        synchronized (ACTIVE)
+        {
+            ChunkGenWorker worker = ACTIVE.remove(dim);
+            if (worker == null)
+                return false;
+            worker.cancelled = true;
+            worker.releaseTickets();
+            worker.getProgress().clear();
+            return true;
+        }
+    }
 
-            for (int q = radius - 1; q >= -radius && ret.size() < total; q--)
-                ret.add(start.offset(-radius, 0, q));
+    // INTERNAL
+    public static void resumeAll(MinecraftServer server)
+    {
+        for (ServerLevel level : server.getAllLevels())
+        {
+            Progress progress = level.getDataStorage().get(Progress::load, DATA_NAME);
+            if (progress == null || !progress.active)
+                continue;
 
-            for (int q = -radius + 1; q <= radius && ret.size() < total; q++)
-                ret.add(start.offset(q, 0, -radius));
+            synchronized (ACTIVE)
+            {
+                if (ACTIVE.containsKey(level))
+                    continue;
+                CommandSourceStack source = server.createCommandSourceStack();
+                ChunkGenWorker worker = new ChunkGenWorker(source, progress.start, progress.total, level, progress.interval, progress.committed);
+                ACTIVE.put(level, worker);
+                WorldWorkerManager.addWorker(worker);
+                source.sendSuccess(() -> Component.translatable("commands.forge.gen.resumed", progress.committed, progress.total, level.dimension().location()), true);
+            }
+        }
+    }
 
-            radius++;
+    // INTERNAL
+    public static void stopAll()
+    {
+        synchronized (ACTIVE)
+        {
+            for (ChunkGenWorker worker : ACTIVE.values())
+            {
+                // Save first, releasing the tickets forgets which chunks are still in flight.
+                worker.saveProgress();
+                worker.releaseTickets();
+            }
+            ACTIVE.clear();
         }
-        return ret;
     }
 
     public MutableComponent getStartMessage(CommandSourceStack sender)
@@ -72,67 +166,218 @@ public class ChunkGenWorker implements IWorker
         return Component.translatable("commands.forge.gen.start", total, start.getX(), start.getZ(), dim);
     }
 
+    @Override
+    public String getName()
+    {
+        return "Chunk generation in " + dim.dimension().location();
+    }
+
     @Override
     public boolean hasWork()
     {
-        return queue.size() > 0;
+        return !cancelled && !finished;
     }
 
     @Override
     public boolean doWork()
     {
-        /* TODO: Check how many things are pending save, and slow down world gen if to many
-        AnvilChunkLoader loader = dim.getChunkProvider().chunkLoader instanceof AnvilChunkLoader ? (AnvilChunkLoader)world.getChunkProvider().chunkLoader : null;
-        if (loader != null && loader.getPendingSaveCount() > 100)
+        if (!hasWork())
+            return false;
+
+        ServerChunkCache chunkSource = dim.getChunkSource();
+        if (baselineLoaded < 0)
+            baselineLoaded = chunkSource.getLoadedChunksCount();
+
+        boolean progressed = false;
+        for (int i = 0; i < inFlightCount; )
         {
+            long pos = inFlight[i];
+            if (chunkSource.getChunkNow(ChunkPos.getX(pos), ChunkPos.getZ(pos)) == null)
+            {
+                i++;
+                continue;
+            }
 
-            if (lastNotifcationTime < System.currentTimeMillis() - 10*1000)
+            chunkSource.removeRegionTicket(PREGEN_TICKET, new ChunkPos(pos), 0, new ChunkPos(pos));
+            inFlightCount--;
+            inFlight[i] = inFlight[inFlightCount];
+            inFlightIndex[i] = inFlightIndex[inFlightCount];
+            completed++;
+            progressed = true;
+
+            if (++lastNotification >= notificationFrequency || lastNotifcationTime < System.currentTimeMillis() - 60*1000)
             {
-                listener.sendFeedback(new TranslationTextComponent("commands.forge.gen.progress", total - queue.size(), total), true);
+                int done = completed;
+                listener.sendSuccess(() -> Component.translatable("commands.forge.gen.progress", done, total), true);
+                lastNotification = 0;
                 lastNotifcationTime = System.currentTimeMillis();
+                saveProgress();
+            }
+        }
+
+        while (inFlightCount < window && submitted < total && !isUnderPressure(chunkSource))
+        {
+            long pos = spiral.next();
+            int x = ChunkPos.getX(pos);
+            int z = ChunkPos.getZ(pos);
+            int index = submitted++;
+            progressed = true;
+
+            if (chunkSource.getChunkNow(x, z) != null)
+            {
+                completed++;
+                continue;
             }
+            genned++; //There isn't a way to check if the chunk is actually created just if it was loaded
+            chunkSource.addRegionTicket(PREGEN_TICKET, new ChunkPos(pos), 0, new ChunkPos(pos));
+            inFlight[inFlightCount] = pos;
+            inFlightIndex[inFlightCount] = index;
+            inFlightCount++;
+        }
+
+        if (completed >= total && inFlightCount == 0)
+        {
+            finished = true;
+            synchronized (ACTIVE)
+            {
+                ACTIVE.remove(dim, this);
+            }
+            getProgress().clear();
+            listener.sendSuccess(() -> Component.translatable("commands.forge.gen.complete", genned, total, dim.dimension().location()), true);
             return false;
         }
-        */
 
-        BlockPos next = queue.poll();
+        // Generation happens asynchronously, there is no point in spinning until something finished.
+        return progressed;
+    }
 
-        if (next != null)
+    private boolean isUnderPressure(ServerChunkCache chunkSource)
+    {
+        if (chunkSource.getLoadedChunksCount() - baselineLoaded > MAX_EXTRA_LOADED_CHUNKS)
+            return true;
+        if (chunkSource.chunkMap.pendingUnloads.size() > MAX_PENDING_UNLOADS)
+            return true;
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory() > runtime.maxMemory() * MAX_HEAP_USAGE;
+    }
+
+    private void releaseTickets()
+    {
+        ServerChunkCache chunkSource = dim.getChunkSource();
+        for (int i = 0; i < inFlightCount; i++)
         {
-            // While we work we don't want to cause world load spam so pause unloading the world.
-            /* TODO: Readd if/when we introduce world unloading, or get Mojang to do it.
-            if (keepingLoaded == null)
-                keepingLoaded = DimensionManager.keepLoaded(dim, true);
-            */
+            ChunkPos pos = new ChunkPos(inFlight[i]);
+            chunkSource.removeRegionTicket(PREGEN_TICKET, pos, 0, pos);
+        }
+        inFlightCount = 0;
+    }
 
-            if (++lastNotification >= notificationFrequency || lastNotifcationTime < System.currentTimeMillis() - 60*1000)
+    private void saveProgress()
+    {
+        // Everything before the oldest chunk still in flight is done, a resumed run restarts from there.
+        int committed = submitted;
+        for (int i = 0; i < inFlightCount; i++)
+            committed = Math.min(committed, inFlightIndex[i]);
+        getProgress().set(start, total, notificationFrequency, committed);
+    }
+
+    private Progress getProgress()
+    {
+        return dim.getDataStorage().computeIfAbsent(Progress::load, Progress::new, DATA_NAME);
+    }
+
+    /**
+     * Produces chunk positions spiralling outwards, starting on right side, down, left, up, right.
+     */
+    private static final class Spiral
+    {
+        private final int centerX;
+        private final int centerZ;
+        private int radius = 0;
+        private int side = 0;
+        private int step = 0;
+
+        private Spiral(int centerX, int centerZ)
+        {
+            this.centerX = centerX;
+            this.centerZ = centerZ;
+        }
+
+        private long next()
+        {
+            if (radius == 0)
             {
-                listener.sendSuccess(() -> Component.translatable("commands.forge.gen.progress", total - queue.size(), total), true);
-                lastNotification = 0;
-                lastNotifcationTime = System.currentTimeMillis();
+                radius = 1;
+                return ChunkPos.asLong(centerX, centerZ);
             }
 
-            int x = next.getX();
-            int z = next.getZ();
+            int x, z;
+            switch (side)
+            {
+                case 0 -> { x = radius;             z = -radius + 1 + step; }
+                case 1 -> { x = radius - 1 - step;  z = radius; }
+                case 2 -> { x = -radius;            z = radius - 1 - step; }
+                default -> { x = -radius + 1 + step; z = -radius; }
+            }
 
-            if (!dim.hasChunk(x, z)) { //Chunk is unloaded
-                ChunkAccess chunk = dim.getChunk(x, z, ChunkStatus.EMPTY, true);
-                if (!chunk.getStatus().isOrAfter(ChunkStatus.FULL)) {
-                    chunk = dim.getChunk(x, z, ChunkStatus.FULL);
-                    genned++; //There isn't a way to check if the chunk is actually created just if it was loaded
+            if (++step == radius * 2)
+            {
+                step = 0;
+                if (++side == 4)
+                {
+                    side = 0;
+                    radius++;
                 }
             }
+            return ChunkPos.asLong(centerX + x, centerZ + z);
         }
+    }
 
-        if (queue.size() == 0)
+    private static class Progress extends SavedData
+    {
+        private boolean active;
+        private BlockPos start = BlockPos.ZERO;
+        private int total;
+        private int interval;
+        private int committed;
+
+        private void set(BlockPos start, int total, int interval, int committed)
         {
-            listener.sendSuccess(() -> Component.translatable("commands.forge.gen.complete", genned, total, dim.dimension().location()), true);
-            /* TODO: Readd if/when we introduce world unloading, or get Mojang to do it.
-            if (keepingLoaded != null && !keepingLoaded)
-                DimensionManager.keepLoaded(dim, false);
-            */
-            return false;
+            this.active = true;
+            this.start = start;
+            this.total = total;
+            this.interval = interval;
+            this.committed = committed;
+            setDirty();
+        }
+
+        private void clear()
+        {
+            this.active = false;
+            setDirty();
+        }
+
+        private static Progress load(CompoundTag tag)
+        {
+            Progress ret = new Progress();
+            ret.active = tag.getBoolean("Active");
+            ret.start = new BlockPos(tag.getInt("X"), 0, tag.getInt("Z"));
+            ret.total = tag.getInt("Total");
+            ret.interval = tag.getInt("Interval");
+            ret.committed = tag.getInt("Committed");
+            return ret;
+        }
+
+        @Override
+        public CompoundTag save(CompoundTag tag)
+        {
+            tag.putBoolean("Active", active);
+            tag.putInt("X", start.getX());
+            tag.putInt("Z", start.getZ());
+            tag.putInt("Total", total);
+            tag.putInt("Interval", interval);
+            tag.putInt("Committed", committed);
+            return tag;
         }
-        return true;
     }
 }
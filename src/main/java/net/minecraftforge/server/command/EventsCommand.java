@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) Forge Development LLC and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.minecraftforge.server.command;
+
+import java.util.Comparator;
+import java.util.List;
+
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraftforge.event.EventCounter;
+
+class EventsCommand
+{
+    static ArgumentBuilder<CommandSourceStack, ?> register()
+    {
+        return Commands.literal("events")
+            .requires(cs->cs.hasPermission(2)) //permission
+            .executes(ctx -> {
+                List<EventCounter> counters = EventCounter.getCounters().stream()
+                        .sorted(Comparator.comparingLong((EventCounter counter) -> counter.getPosted() + counter.getSkipped()).reversed())
+                        .toList();
+                if (counters.isEmpty())
+                {
+                    ctx.getSource().sendSuccess(() -> Component.translatable("commands.forge.events.none"), false);
+                    return 0;
+                }
+
+                for (EventCounter counter : counters)
+                {
+                    ctx.getSource().sendSuccess(() -> Component.translatable("commands.forge.events.entry", counter.getType().getSimpleName(),
+                            counter.getPosted(), counter.getSkipped()), false);
+                }
+                return counters.size();
+            });
+    }
+}
@@ -19,6 +19,8 @@ public class ForgeCommand
             .then(TrackCommand.register())
             .then(EntityCommand.register())
             .then(GenerateCommand.register())
+            .then(WorkersCommand.register())
+            .then(EventsCommand.register())
             .then(DimensionsCommand.register())
             .then(ModListCommand.register())
             .then(TagsCommand.register())
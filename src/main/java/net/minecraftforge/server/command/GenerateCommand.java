@@ -15,8 +15,8 @@ import net.minecraft.commands.Commands;
 import net.minecraft.commands.arguments.coordinates.BlockPosArgument;
 import net.minecraft.commands.arguments.DimensionArgument;
 import net.minecraft.core.BlockPos;
+import net.minecraft.network.chat.Component;
 import net.minecraft.server.level.ServerLevel;
-import net.minecraftforge.common.WorldWorkerManager;
 
 class GenerateCommand
 {
@@ -24,6 +24,12 @@ class GenerateCommand
     {
         return Commands.literal("generate")
             .requires(cs->cs.hasPermission(4)) //permission
+            .then(Commands.literal("cancel")
+                .then(Commands.argument("dim", DimensionArgument.dimension())
+                    .executes(ctx -> cancel(ctx.getSource(), DimensionArgument.getDimension(ctx, "dim")))
+                )
+                .executes(ctx -> cancel(ctx.getSource(), ctx.getSource().getLevel()))
+            )
             .then(Commands.argument("pos", BlockPosArgument.blockPos())
                 .then(Commands.argument("count", IntegerArgumentType.integer(1))
                     .then(Commands.argument("dim", DimensionArgument.dimension())
@@ -46,9 +52,23 @@ class GenerateCommand
     {
         BlockPos chunkpos = new BlockPos(pos.getX() >> 4, 0, pos.getZ() >> 4);
 
-        ChunkGenWorker worker = new ChunkGenWorker(source, chunkpos, count, dim, interval);
+        ChunkGenWorker worker = ChunkGenWorker.start(source, chunkpos, count, dim, interval);
+        if (worker == null)
+        {
+            source.sendFailure(Component.translatable("commands.forge.gen.already_running", dim.dimension().location()));
+            return 0;
+        }
         source.sendSuccess(() -> worker.getStartMessage(source), true);
-        WorldWorkerManager.addWorker(worker);
+
+        return 0;
+    }
+
+    private static int cancel(CommandSourceStack source, ServerLevel dim) throws CommandRuntimeException
+    {
+        if (ChunkGenWorker.cancel(dim))
+            source.sendSuccess(() -> Component.translatable("commands.forge.gen.cancelled", dim.dimension().location()), true);
+        else
+            source.sendFailure(Component.translatable("commands.forge.gen.not_running", dim.dimension().location()));
 
         return 0;
     }
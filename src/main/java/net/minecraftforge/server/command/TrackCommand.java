@@ -12,17 +12,21 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
 import net.minecraft.commands.CommandRuntimeException;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
 import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
 import net.minecraftforge.registries.ForgeRegistries;
 import net.minecraftforge.server.timings.ForgeTimings;
+import net.minecraftforge.server.timings.LatencyHistogram;
 import net.minecraftforge.server.timings.TimeTracker;
 
 class TrackCommand
@@ -54,6 +58,15 @@ class TrackCommand
                             ctx.getSource().sendSuccess(() -> Component.translatable("commands.forge.tracking.be.enabled", duration), true);
                             return 0;
                         })
+                        .then(Commands.literal("histogram")
+                            .executes(ctx -> {
+                                int duration = IntegerArgumentType.getInteger(ctx, "duration");
+                                TimeTracker.BLOCK_ENTITY_UPDATE.reset();
+                                TimeTracker.BLOCK_ENTITY_UPDATE.enableHistograms(duration);
+                                ctx.getSource().sendSuccess(() -> Component.translatable("commands.forge.tracking.be.histogram_enabled", duration), true);
+                                return 0;
+                            })
+                        )
                     )
                 )
                 .then(Commands.literal("entity")
@@ -65,6 +78,15 @@ class TrackCommand
                             ctx.getSource().sendSuccess(() -> Component.translatable("commands.forge.tracking.entity.enabled", duration), true);
                             return 0;
                         })
+                        .then(Commands.literal("histogram")
+                            .executes(ctx -> {
+                                int duration = IntegerArgumentType.getInteger(ctx, "duration");
+                                TimeTracker.ENTITY_UPDATE.reset();
+                                TimeTracker.ENTITY_UPDATE.enableHistograms(duration);
+                                ctx.getSource().sendSuccess(() -> Component.translatable("commands.forge.tracking.entity.histogram_enabled", duration), true);
+                                return 0;
+                            })
+                        )
                     )
                 );
         }
@@ -127,6 +149,51 @@ class TrackCommand
             }
             return 0;
         }
+
+        private static <T> int executeTypes(CommandSourceStack source, TimeTracker<T> tracker, Function<Object, Object> typeName) throws CommandRuntimeException
+        {
+            List<Map.Entry<Object, LatencyHistogram.Snapshot>> types = new ArrayList<>(tracker.getTypeTimings().entrySet());
+            if (types.isEmpty())
+            {
+                source.sendSuccess(() -> Component.translatable("commands.forge.tracking.no_data"), true);
+                return 0;
+            }
+
+            types.sort(Comparator.comparingLong((Map.Entry<Object, LatencyHistogram.Snapshot> e) -> e.getValue().getTotal()).reversed());
+            types.stream()
+                    .limit(10)
+                    .forEach(e -> {
+                        LatencyHistogram.Snapshot data = e.getValue();
+                        source.sendSuccess(() -> Component.translatable("commands.forge.tracking.type_entry", typeName.apply(e.getKey()), data.getCount(),
+                                formatNanos(data.getMean()), formatNanos(data.getPercentile(50)), formatNanos(data.getPercentile(99)), formatNanos(data.getMax())), true);
+                    });
+            return 0;
+        }
+
+        private static <T> int executeChunks(CommandSourceStack source, TimeTracker<T> tracker) throws CommandRuntimeException
+        {
+            List<TimeTracker.ChunkTimings> chunks = new ArrayList<>(tracker.getChunkTimings());
+            if (chunks.isEmpty())
+            {
+                source.sendSuccess(() -> Component.translatable("commands.forge.tracking.no_data"), true);
+                return 0;
+            }
+
+            chunks.sort(Comparator.comparingLong((TimeTracker.ChunkTimings c) -> c.timings().getTotal()).reversed());
+            chunks.stream()
+                    .limit(10)
+                    .forEach(c -> {
+                        LatencyHistogram.Snapshot data = c.timings();
+                        source.sendSuccess(() -> Component.translatable("commands.forge.tracking.chunk_entry", c.dimension().location().toString(), c.pos().x, c.pos().z, data.getCount(),
+                                formatNanos(data.getMean()), formatNanos(data.getPercentile(50)), formatNanos(data.getPercentile(99)), formatNanos(data.getMax())), true);
+                    });
+            return 0;
+        }
+
+        private static String formatNanos(double nanos)
+        {
+            return nanos >= 1_000_000 ? TIME_FORMAT.format(nanos / 1_000_000) + "ms" : TIME_FORMAT.format(nanos / 1000) + "\u03bcs";
+        }
     }
 
     private static class TrackResultsEntity
@@ -145,7 +212,9 @@ class TrackCommand
 
                     return Component.translatable("commands.forge.tracking.timing_entry", ForgeRegistries.ENTITY_TYPES.getKey(entity.getType()), entity.level().dimension().location().toString(), pos.getX(), pos.getY(), pos.getZ(), tickTime);
                 })
-            );
+            )
+            .then(Commands.literal("types").executes(ctx -> TrackResults.executeTypes(ctx.getSource(), TimeTracker.ENTITY_UPDATE, type -> ForgeRegistries.ENTITY_TYPES.getKey((EntityType<?>) type))))
+            .then(Commands.literal("chunks").executes(ctx -> TrackResults.executeChunks(ctx.getSource(), TimeTracker.ENTITY_UPDATE)));
         }
     }
 
@@ -165,7 +234,9 @@ class TrackCommand
                     String tickTime = (averageTimings > 1000 ? TIME_FORMAT.format(averageTimings / 1000) : TIME_FORMAT.format(averageTimings)) + (averageTimings < 1000 ? "\u03bcs" : "ms");
                     return Component.translatable("commands.forge.tracking.timing_entry", ForgeRegistries.BLOCK_ENTITY_TYPES.getKey(be.getType()), be.getLevel().dimension().location().toString(), pos.getX(), pos.getY(), pos.getZ(), tickTime);
                 })
-            );
+            )
+            .then(Commands.literal("types").executes(ctx -> TrackResults.executeTypes(ctx.getSource(), TimeTracker.BLOCK_ENTITY_UPDATE, type -> ForgeRegistries.BLOCK_ENTITY_TYPES.getKey((BlockEntityType<?>) type))))
+            .then(Commands.literal("chunks").executes(ctx -> TrackResults.executeChunks(ctx.getSource(), TimeTracker.BLOCK_ENTITY_UPDATE)));
         }
     }
 }
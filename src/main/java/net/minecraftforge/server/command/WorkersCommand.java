@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) Forge Development LLC and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.minecraftforge.server.command;
+
+import java.text.DecimalFormat;
+import java.util.Comparator;
+import java.util.List;
+
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraftforge.common.WorldWorkerManager;
+
+class WorkersCommand
+{
+    private static final DecimalFormat TIME_FORMATTER = new DecimalFormat("########0.000");
+
+    static ArgumentBuilder<CommandSourceStack, ?> register()
+    {
+        return Commands.literal("workers")
+            .requires(cs->cs.hasPermission(2)) //permission
+            .executes(ctx -> {
+                List<WorldWorkerManager.WorkerStatistics> stats = WorldWorkerManager.getStatistics().stream()
+                        .sorted(Comparator.comparingLong(WorldWorkerManager.WorkerStatistics::totalNanos).reversed())
+                        .toList();
+                if (stats.isEmpty())
+                {
+                    ctx.getSource().sendSuccess(() -> Component.translatable("commands.forge.workers.none"), false);
+                    return 0;
+                }
+
+                for (WorldWorkerManager.WorkerStatistics stat : stats)
+                {
+                    ctx.getSource().sendSuccess(() -> Component.translatable("commands.forge.workers.entry", stat.name(), stat.priority(),
+                            TIME_FORMATTER.format(stat.lastTickNanos() * 1.0E-6D), TIME_FORMATTER.format(stat.totalNanos() * 1.0E-6D),
+                            stat.calls(), stat.ticks(), stat.skipped()), false);
+                }
+                return stats.size();
+            });
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) Forge Development LLC and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.minecraftforge.server.timings;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size, lock-free latency histogram with log-linear buckets.
+ * <p>
+ * Values (in nanoseconds) are sorted into power of two ranges, each split into {@code 2^subBucketBits}
+ * linear sub-buckets, so the relative error of any reported percentile is bounded by {@code 2^-subBucketBits}.
+ * Recording never allocates and may be called from any number of threads at once.
+ */
+public class LatencyHistogram
+{
+    // Values above this (about 18 minutes) are clamped into the last bucket.
+    private static final int MAX_EXPONENT = 40;
+    private static final long MAX_VALUE = (1L << MAX_EXPONENT) - 1;
+
+    private final int subBucketBits;
+    private final int subBuckets;
+    private final AtomicLongArray counts;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param subBucketBits The precision of the histogram, between 1 and 8. 4 gives roughly 6% precision.
+     */
+    public LatencyHistogram(int subBucketBits)
+    {
+        if (subBucketBits < 1 || subBucketBits > 8)
+            throw new IllegalArgumentException("subBucketBits must be between 1 and 8, got " + subBucketBits);
+        this.subBucketBits = subBucketBits;
+        this.subBuckets = 1 << subBucketBits;
+        this.counts = new AtomicLongArray((MAX_EXPONENT - subBucketBits + 1) * subBuckets);
+    }
+
+    /**
+     * Records a single sample.
+     *
+     * @param nanos The measured time in nanoseconds, negative values are treated as zero.
+     */
+    public void record(long nanos)
+    {
+        long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+        counts.incrementAndGet(bucketFor(value));
+        count.increment();
+        sum.add(value);
+
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value))
+            current = max.get();
+    }
+
+    /**
+     * Clears all recorded samples. Samples recorded concurrently with a reset may be partially kept.
+     */
+    public void reset()
+    {
+        for (int i = 0; i < counts.length(); i++)
+            counts.set(i, 0);
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    /**
+     * @return A consistent-enough copy of the current data, for reporting.
+     */
+    public Snapshot snapshot()
+    {
+        long[] data = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < data.length; i++)
+        {
+            data[i] = counts.get(i);
+            total += data[i];
+        }
+        return new Snapshot(this, data, total, sum.sum(), max.get());
+    }
+
+    private int bucketFor(long value)
+    {
+        if (value < subBuckets)
+            return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - subBucketBits)) & (subBuckets - 1);
+        return (exponent - subBucketBits + 1) * subBuckets + sub;
+    }
+
+    private long upperBoundOf(int bucket)
+    {
+        if (bucket < subBuckets)
+            return bucket;
+        int group = bucket / subBuckets;
+        int sub = bucket % subBuckets;
+        long lower = (long) (subBuckets + sub) << (group - 1);
+        return lower + (1L << (group - 1)) - 1;
+    }
+
+    public static class Snapshot
+    {
+        private final LatencyHistogram owner;
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(LatencyHistogram owner, long[] counts, long count, long sum, long max)
+        {
+            this.owner = owner;
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * @return The number of recorded samples
+         */
+        public long getCount()
+        {
+            return count;
+        }
+
+        /**
+         * @return The sum of all recorded samples, in nanoseconds
+         */
+        public long getTotal()
+        {
+            return sum;
+        }
+
+        /**
+         * @return The mean of all recorded samples, in nanoseconds
+         */
+        public double getMean()
+        {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * @return The largest recorded sample, in nanoseconds
+         */
+        public long getMax()
+        {
+            return max;
+        }
+
+        /**
+         * @param percentile The percentile to look up, between 0 and 100
+         * @return An upper bound of the given percentile, in nanoseconds
+         */
+        public long getPercentile(double percentile)
+        {
+            if (count == 0)
+                return 0;
+            long target = Math.max(1, (long) Math.ceil(count * Math.min(Math.max(percentile, 0), 100) / 100.0));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++)
+            {
+                seen += counts[i];
+                if (seen >= target)
+                    return Math.min(owner.upperBoundOf(i), max);
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) Forge Development LLC and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.minecraftforge.server.timings;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.level.block.entity.BlockEntityType;
+import net.minecraftforge.common.ForgeConfig;
+import net.minecraftforge.fml.loading.FMLLoader;
+import net.minecraftforge.registries.ForgeRegistries;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import xyz.bluspring.kilt.injections.server.MinecraftServerInjection;
+
+/**
+ * An always-on, low-overhead collector of server tick metrics, enabled through the {@code tickMetricsEnabled} server config.
+ * <p>
+ * Every {@code tickMetricsInterval} seconds a snapshot of per-dimension tick times, sampled block entity and entity tick
+ * cost per type, chunk load and generation counts and custom packet counts per channel is written to
+ * {@code logs/tick-metrics}, either appended as a JSON line to a daily file or as an OpenMetrics text file that is
+ * replaced on every write. Collection happens on the server thread, file IO on a background thread.
+ */
+public class TickMetrics
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+
+    public enum Format
+    {
+        JSONL,
+        OPENMETRICS
+    }
+
+    private static volatile boolean enabled;
+    private static long nextExport;
+    private static ExecutorService writer;
+
+    private static final LongAdder chunksLoaded = new LongAdder();
+    private static final LongAdder chunksGenerated = new LongAdder();
+    private static final Map<ResourceLocation, LongAdder> packetsIn = new ConcurrentHashMap<>();
+    private static final Map<ResourceLocation, LongAdder> packetsOut = new ConcurrentHashMap<>();
+
+    /**
+     * @return true if metrics are currently being collected
+     */
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Counts a chunk being loaded into a server level
+     *
+     * @param generated Whether the chunk was newly generated
+     */
+    public static void onChunkLoad(boolean generated)
+    {
+        if (!enabled)
+            return;
+        chunksLoaded.increment();
+        if (generated)
+            chunksGenerated.increment();
+    }
+
+    /**
+     * Counts a custom payload packet sent or received on the given channel
+     */
+    public static void onPacket(ResourceLocation channel, boolean outbound)
+    {
+        if (!enabled)
+            return;
+        Map<ResourceLocation, LongAdder> counts = outbound ? packetsOut : packetsIn;
+        LongAdder count = counts.get(channel);
+        if (count == null)
+            count = counts.computeIfAbsent(channel, k -> new LongAdder());
+        count.increment();
+    }
+
+    // INTERNAL
+    public static void tick(MinecraftServer server)
+    {
+        boolean configured = ForgeConfig.SERVER.tickMetricsEnabled.get();
+        if (configured != enabled)
+        {
+            if (configured)
+                start();
+            else
+                stop();
+        }
+        if (!enabled)
+            return;
+
+        long now = System.nanoTime();
+        if (now - nextExport < 0)
+            return;
+        nextExport = now + TimeUnit.SECONDS.toNanos(ForgeConfig.SERVER.tickMetricsInterval.get());
+
+        int sampleRate = ForgeConfig.SERVER.tickMetricsSampleRate.get();
+        TimeTracker.BLOCK_ENTITY_UPDATE.enableSampling(sampleRate);
+        TimeTracker.ENTITY_UPDATE.enableSampling(sampleRate);
+
+        JsonObject snapshot = collect(server, sampleRate);
+        Format format = ForgeConfig.SERVER.tickMetricsFormat.get();
+        writer.execute(() -> write(snapshot, format));
+    }
+
+    // INTERNAL
+    public static void stop()
+    {
+        if (!enabled)
+            return;
+        enabled = false;
+        TimeTracker.BLOCK_ENTITY_UPDATE.enableSampling(0);
+        TimeTracker.ENTITY_UPDATE.enableSampling(0);
+        writer.shutdown();
+        writer = null;
+    }
+
+    private static void start()
+    {
+        writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "Forge Tick Metrics Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        chunksLoaded.reset();
+        chunksGenerated.reset();
+        packetsIn.clear();
+        packetsOut.clear();
+        int sampleRate = ForgeConfig.SERVER.tickMetricsSampleRate.get();
+        TimeTracker.BLOCK_ENTITY_UPDATE.enableSampling(sampleRate);
+        TimeTracker.ENTITY_UPDATE.enableSampling(sampleRate);
+        TimeTracker.BLOCK_ENTITY_UPDATE.drainSampledTimings();
+        TimeTracker.ENTITY_UPDATE.drainSampledTimings();
+        nextExport = System.nanoTime() + TimeUnit.SECONDS.toNanos(ForgeConfig.SERVER.tickMetricsInterval.get());
+        enabled = true;
+    }
+
+    private static JsonObject collect(MinecraftServer server, int sampleRate)
+    {
+        JsonObject root = new JsonObject();
+        root.addProperty("time", System.currentTimeMillis());
+        root.addProperty("tick", server.getTickCount());
+        root.addProperty("mspt", mean(server.tickTimes) * 1.0E-6D);
+        root.addProperty("sampleRate", sampleRate);
+
+        JsonObject dimensions = new JsonObject();
+        for (ServerLevel level : server.getAllLevels())
+        {
+            JsonObject dim = new JsonObject();
+            long[] times = ((MinecraftServerInjection) server).getTickTime(level.dimension());
+            dim.addProperty("mspt", times == null ? 0 : mean(times) * 1.0E-6D);
+            dim.addProperty("loadedChunks", level.getChunkSource().getLoadedChunksCount());
+            dimensions.add(level.dimension().location().toString(), dim);
+        }
+        root.add("dimensions", dimensions);
+
+        root.add("blockEntities", toJson(TimeTracker.BLOCK_ENTITY_UPDATE.drainSampledTimings(), type -> ForgeRegistries.BLOCK_ENTITY_TYPES.getKey((BlockEntityType<?>) type)));
+        root.add("entities", toJson(TimeTracker.ENTITY_UPDATE.drainSampledTimings(), type -> ForgeRegistries.ENTITY_TYPES.getKey((EntityType<?>) type)));
+
+        JsonObject chunks = new JsonObject();
+        chunks.addProperty("loaded", chunksLoaded.sumThenReset());
+        chunks.addProperty("generated", chunksGenerated.sumThenReset());
+        root.add("chunks", chunks);
+
+        JsonObject packets = new JsonObject();
+        drainPackets(packetsIn, packets, "in");
+        drainPackets(packetsOut, packets, "out");
+        root.add("packets", packets);
+        return root;
+    }
+
+    private static JsonObject toJson(ImmutableMap<Object, LatencyHistogram.Snapshot> timings, Function<Object, ResourceLocation> names)
+    {
+        JsonObject ret = new JsonObject();
+        timings.forEach((type, data) -> {
+            if (data.getCount() == 0)
+                return;
+            JsonObject entry = new JsonObject();
+            entry.addProperty("count", data.getCount());
+            entry.addProperty("totalNanos", data.getTotal());
+            entry.addProperty("meanNanos", data.getMean());
+            entry.addProperty("p50Nanos", data.getPercentile(50));
+            entry.addProperty("p99Nanos", data.getPercentile(99));
+            entry.addProperty("maxNanos", data.getMax());
+            ResourceLocation name = names.apply(type);
+            ret.add(name == null ? type.toString() : name.toString(), entry);
+        });
+        return ret;
+    }
+
+    private static void drainPackets(Map<ResourceLocation, LongAdder> counts, JsonObject packets, String direction)
+    {
+        counts.forEach((channel, count) -> {
+            long value = count.sumThenReset();
+            if (value == 0)
+                return;
+            String key = channel.toString();
+            JsonObject entry = packets.has(key) ? packets.getAsJsonObject(key) : new JsonObject();
+            entry.addProperty(direction, value);
+            packets.add(key, entry);
+        });
+    }
+
+    private static void write(JsonObject snapshot, Format format)
+    {
+        Path folder = FMLLoader.getGamePath().resolve("logs").resolve("tick-metrics");
+        try
+        {
+            Files.createDirectories(folder);
+            if (format == Format.JSONL)
+            {
+                Path file = folder.resolve("tick-metrics-" + LocalDate.now() + ".jsonl");
+                Files.writeString(file, GSON.toJson(snapshot) + "\n", StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            else
+            {
+                Path file = folder.resolve("tick-metrics.prom");
+                Path tmp = folder.resolve("tick-metrics.prom.tmp");
+                try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8))
+                {
+                    writeOpenMetrics(snapshot, out);
+                }
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        catch (IOException e)
+        {
+            LOGGER.warn("Failed to write tick metrics to {}", folder, e);
+        }
+    }
+
+    private static void writeOpenMetrics(JsonObject snapshot, Writer out) throws IOException
+    {
+        out.write("# TYPE forge_tick_mspt gauge\n");
+        out.write("forge_tick_mspt " + snapshot.get("mspt").getAsDouble() + "\n");
+
+        out.write("# TYPE forge_dimension_tick_mspt gauge\n");
+        out.write("# TYPE forge_dimension_loaded_chunks gauge\n");
+        for (Map.Entry<String, JsonElement> dim : snapshot.getAsJsonObject("dimensions").entrySet())
+        {
+            JsonObject data = dim.getValue().getAsJsonObject();
+            out.write("forge_dimension_tick_mspt{dimension=\"" + escape(dim.getKey()) + "\"} " + data.get("mspt").getAsDouble() + "\n");
+            out.write("forge_dimension_loaded_chunks{dimension=\"" + escape(dim.getKey()) + "\"} " + data.get("loadedChunks").getAsLong() + "\n");
+        }
+
+        writeTypeMetrics(out, "forge_block_entity_tick", snapshot.getAsJsonObject("blockEntities"));
+        writeTypeMetrics(out, "forge_entity_tick", snapshot.getAsJsonObject("entities"));
+
+        JsonObject chunks = snapshot.getAsJsonObject("chunks");
+        out.write("# TYPE forge_chunks_loaded gauge\n");
+        out.write("forge_chunks_loaded " + chunks.get("loaded").getAsLong() + "\n");
+        out.write("# TYPE forge_chunks_generated gauge\n");
+        out.write("forge_chunks_generated " + chunks.get("generated").getAsLong() + "\n");
+
+        out.write("# TYPE forge_packets gauge\n");
+        for (Map.Entry<String, JsonElement> channel : snapshot.getAsJsonObject("packets").entrySet())
+        {
+            for (Map.Entry<String, JsonElement> direction : channel.getValue().getAsJsonObject().entrySet())
+                out.write("forge_packets{channel=\"" + escape(channel.getKey()) + "\",direction=\"" + direction.getKey() + "\"} " + direction.getValue().getAsLong() + "\n");
+        }
+        out.write("# EOF\n");
+    }
+
+    private static void writeTypeMetrics(Writer out, String name, JsonObject types) throws IOException
+    {
+        out.write("# TYPE " + name + "_seconds summary\n");
+        for (Map.Entry<String, JsonElement> type : types.entrySet())
+        {
+            JsonObject data = type.getValue().getAsJsonObject();
+            String label = "type=\"" + escape(type.getKey()) + "\"";
+            out.write(name + "_seconds{" + label + ",quantile=\"0.5\"} " + seconds(data, "p50Nanos") + "\n");
+            out.write(name + "_seconds{" + label + ",quantile=\"0.99\"} " + seconds(data, "p99Nanos") + "\n");
+            out.write(name + "_seconds_sum{" + label + "} " + seconds(data, "totalNanos") + "\n");
+            out.write(name + "_seconds_count{" + label + "} " + data.get("count").getAsLong() + "\n");
+        }
+    }
+
+    private static String seconds(JsonObject data, String key)
+    {
+        return String.format(Locale.ROOT, "%.9f", data.get(key).getAsLong() * 1.0E-9D);
+    }
+
+    private static String escape(String label)
+    {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static long mean(long[] values)
+    {
+        long sum = 0L;
+        for (long v : values)
+            sum += v;
+        return values.length == 0 ? 0 : sum / values.length;
+    }
+}
@@ -8,16 +8,35 @@ package net.minecraftforge.server.timings;
 import java.lang.ref.WeakReference;
 import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.MapMaker;
+import it.unimi.dsi.fastutil.HashCommon;
 
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.entity.BlockEntity;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * A class to assist in the collection of data to measure the update times of ticking objects {currently Tile Entities and Entities}
+ * <p>
+ * Several modes are available. {@link #enable(int)} keeps the last 100 samples of every tracked object, and is meant
+ * for single-threaded inspection of individual objects. {@link #enableHistograms(int)} aggregates samples into
+ * {@link LatencyHistogram}s per type and per chunk, does not allocate per sample and may be used while levels
+ * tick in parallel. {@link #enableSampling(int)} continuously times a fraction of all updates per type,
+ * and is used by {@link TickMetrics}.
  *
  * @param <T>
  */
@@ -27,11 +46,18 @@ public class TimeTracker<T>
     /**
      * A tracker for timing tile entity update
      */
-    public static final TimeTracker<BlockEntity> BLOCK_ENTITY_UPDATE = new TimeTracker<>();
+    public static final TimeTracker<BlockEntity> BLOCK_ENTITY_UPDATE = new TimeTracker<>(BlockEntity::getType,
+            be -> be.getLevel() == null ? null : be.getLevel().dimension(),
+            be -> chunkKey(be.getBlockPos()));
     /**
      * A tracker for timing entity updates
      */
-    public static final TimeTracker<Entity> ENTITY_UPDATE = new TimeTracker<>();
+    public static final TimeTracker<Entity> ENTITY_UPDATE = new TimeTracker<>(Entity::getType,
+            entity -> entity.level().dimension(),
+            entity -> entity.chunkPosition().toLong());
+
+    private static final int TYPE_PRECISION = 4;
+    private static final int CHUNK_PRECISION = 2;
 
     private boolean enabled;
     private int trackingDuration;
@@ -40,6 +66,34 @@ public class TimeTracker<T>
     private long trackTime;
     private long timing;
 
+    private final Function<T, ?> typeClassifier;
+    private final Function<T, ResourceKey<Level>> levelClassifier;
+    private final ToLongFunction<T> chunkClassifier;
+    private volatile boolean histogramsEnabled;
+    private volatile long histogramEnd;
+    private final Map<Object, LatencyHistogram> typeHistograms = new ConcurrentHashMap<>();
+    private final Map<ResourceKey<Level>, ChunkHistograms> chunkHistograms = new ConcurrentHashMap<>();
+    private final ThreadLocal<Sample> currentSample = ThreadLocal.withInitial(Sample::new);
+    private volatile int sampleInterval;
+    private final Map<Object, LatencyHistogram> sampledHistograms = new ConcurrentHashMap<>();
+
+    public TimeTracker()
+    {
+        this(Object::getClass, object -> null, object -> 0);
+    }
+
+    /**
+     * @param typeClassifier  Maps a tracked object to the key its samples are aggregated under, such as its type
+     * @param levelClassifier Maps a tracked object to its dimension, or null if it is not in a level
+     * @param chunkClassifier Maps a tracked object to the {@link ChunkPos#toLong() packed position} of its chunk
+     */
+    public TimeTracker(Function<T, ?> typeClassifier, Function<T, ResourceKey<Level>> levelClassifier, ToLongFunction<T> chunkClassifier)
+    {
+        this.typeClassifier = typeClassifier;
+        this.levelClassifier = levelClassifier;
+        this.chunkClassifier = chunkClassifier;
+    }
+
     /**
      * Returns the timings data recorded by the tracker
      *
@@ -64,6 +118,72 @@ public class TimeTracker<T>
         enabled = false;
         trackTime = 0;
         timings.clear();
+        histogramsEnabled = false;
+        typeHistograms.clear();
+        chunkHistograms.clear();
+    }
+
+    /**
+     * Returns the histogram data recorded per type since the last reset
+     *
+     * @return An immutable map of the type key to its timings
+     */
+    public ImmutableMap<Object, LatencyHistogram.Snapshot> getTypeTimings()
+    {
+        ImmutableMap.Builder<Object, LatencyHistogram.Snapshot> builder = ImmutableMap.builder();
+        typeHistograms.forEach((type, histogram) -> builder.put(type, histogram.snapshot()));
+        return builder.build();
+    }
+
+    /**
+     * Returns the histogram data recorded per chunk since the last reset
+     *
+     * @return An immutable list of chunk timings, in no particular order
+     */
+    public ImmutableList<ChunkTimings> getChunkTimings()
+    {
+        ImmutableList.Builder<ChunkTimings> builder = ImmutableList.builder();
+        chunkHistograms.forEach((dimension, chunks) -> chunks.collect(dimension, builder));
+        return builder.build();
+    }
+
+    /**
+     * Starts continuously timing one in every {@code interval} tracked updates, independent of the other modes.
+     * The results are aggregated per type and collected with {@link #drainSampledTimings()}.
+     *
+     * @param interval How many updates to skip between two timed ones, 0 to stop sampling
+     */
+    public void enableSampling(int interval)
+    {
+        this.sampleInterval = Math.max(interval, 0);
+        if (interval <= 0)
+            sampledHistograms.clear();
+    }
+
+    /**
+     * Returns the sampled timings per type and clears them, samples taken while draining may be lost.
+     *
+     * @return An immutable map of the type key to its sampled timings since the last drain
+     */
+    public ImmutableMap<Object, LatencyHistogram.Snapshot> drainSampledTimings()
+    {
+        ImmutableMap.Builder<Object, LatencyHistogram.Snapshot> builder = ImmutableMap.builder();
+        sampledHistograms.forEach((type, histogram) -> {
+            builder.put(type, histogram.snapshot());
+            histogram.reset();
+        });
+        return builder.build();
+    }
+
+    /**
+     * Starts recording histogram data for the given duration in seconds
+     *
+     * @param duration The duration for the time to track
+     */
+    public void enableHistograms(int duration)
+    {
+        this.histogramEnd = System.nanoTime() + TimeUnit.NANOSECONDS.convert(duration, TimeUnit.SECONDS);
+        this.histogramsEnabled = true;
     }
 
     /**
@@ -73,6 +193,10 @@ public class TimeTracker<T>
      */
     public void trackEnd(T tracking)
     {
+        if (sampleInterval > 0)
+            this.sampleEnd(tracking, System.nanoTime());
+        if (histogramsEnabled)
+            this.histogramEnd(tracking, System.nanoTime());
         if (!enabled)
             return;
         this.trackEnd(tracking, System.nanoTime());
@@ -96,6 +220,11 @@ public class TimeTracker<T>
      */
     public void trackStart(T toTrack)
     {
+        int interval = sampleInterval;
+        if (interval > 0)
+            this.sampleStart(toTrack, interval, System.nanoTime());
+        if (histogramsEnabled)
+            this.histogramStart(toTrack, System.nanoTime());
         if (!enabled)
             return;
         this.trackStart(toTrack, System.nanoTime());
@@ -128,4 +257,144 @@ public class TimeTracker<T>
         currentlyTracking = new WeakReference<>(toTrack);
         timing = nanoTime;
     }
+
+    private void histogramStart(T toTrack, long nanoTime)
+    {
+        if (nanoTime > histogramEnd)
+        {
+            histogramsEnabled = false;
+            return;
+        }
+        Sample sample = currentSample.get();
+        sample.tracking = toTrack;
+        sample.start = nanoTime;
+    }
+
+    private void histogramEnd(T object, long nanoTime)
+    {
+        Sample sample = currentSample.get();
+        if (sample.tracking != object)
+        {
+            sample.tracking = null;
+            return;
+        }
+        sample.tracking = null;
+        long elapsed = nanoTime - sample.start;
+
+        Object type = typeClassifier.apply(object);
+        LatencyHistogram histogram = typeHistograms.get(type);
+        if (histogram == null)
+            histogram = typeHistograms.computeIfAbsent(type, k -> new LatencyHistogram(TYPE_PRECISION));
+        histogram.record(elapsed);
+
+        ResourceKey<Level> dimension = levelClassifier.apply(object);
+        if (dimension != null)
+        {
+            ChunkHistograms chunks = chunkHistograms.get(dimension);
+            if (chunks == null)
+                chunks = chunkHistograms.computeIfAbsent(dimension, k -> new ChunkHistograms());
+            chunks.get(chunkClassifier.applyAsLong(object)).record(elapsed);
+        }
+    }
+
+    private void sampleStart(T toTrack, int interval, long nanoTime)
+    {
+        Sample sample = currentSample.get();
+        if (++sample.skipped < interval)
+            return;
+        sample.skipped = 0;
+        sample.sampled = toTrack;
+        sample.sampledStart = nanoTime;
+    }
+
+    private void sampleEnd(T object, long nanoTime)
+    {
+        Sample sample = currentSample.get();
+        if (sample.sampled != object)
+            return;
+        sample.sampled = null;
+
+        Object type = typeClassifier.apply(object);
+        LatencyHistogram histogram = sampledHistograms.get(type);
+        if (histogram == null)
+            histogram = sampledHistograms.computeIfAbsent(type, k -> new LatencyHistogram(TYPE_PRECISION));
+        histogram.record(nanoTime - sample.sampledStart);
+    }
+
+    private static long chunkKey(BlockPos pos)
+    {
+        return ChunkPos.asLong(SectionPos.blockToSectionCoord(pos.getX()), SectionPos.blockToSectionCoord(pos.getZ()));
+    }
+
+    /**
+     * Histogram timings of a single chunk
+     */
+    public record ChunkTimings(ResourceKey<Level> dimension, ChunkPos pos, LatencyHistogram.Snapshot timings) {}
+
+    // Per-thread start of the object currently being timed, reused so tracking does not allocate.
+    private static final class Sample
+    {
+        @Nullable
+        private Object tracking;
+        private long start;
+        @Nullable
+        private Object sampled;
+        private long sampledStart;
+        private int skipped;
+    }
+
+    /**
+     * A fixed-capacity, lock-free open addressing table from packed chunk positions to histograms.
+     * Chunks beyond the capacity share one overflow histogram.
+     */
+    private static final class ChunkHistograms
+    {
+        private static final int CAPACITY = 4096;
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private final AtomicLongArray keys = new AtomicLongArray(CAPACITY);
+        private final AtomicReferenceArray<LatencyHistogram> values = new AtomicReferenceArray<>(CAPACITY);
+        private final LatencyHistogram overflow = new LatencyHistogram(CHUNK_PRECISION);
+
+        private ChunkHistograms()
+        {
+            for (int i = 0; i < CAPACITY; i++)
+                keys.set(i, EMPTY);
+        }
+
+        private LatencyHistogram get(long chunk)
+        {
+            int start = (int) (HashCommon.mix(chunk) & (CAPACITY - 1));
+            for (int probe = 0; probe < CAPACITY; probe++)
+            {
+                int idx = (start + probe) & (CAPACITY - 1);
+                long key = keys.get(idx);
+                if (key == EMPTY && keys.compareAndSet(idx, EMPTY, chunk))
+                    key = chunk;
+                if (key == chunk)
+                {
+                    LatencyHistogram ret = values.get(idx);
+                    if (ret == null)
+                    {
+                        values.compareAndSet(idx, null, new LatencyHistogram(CHUNK_PRECISION));
+                        ret = values.get(idx);
+                    }
+                    return ret;
+                }
+                if (key == EMPTY) // Lost the race for this slot, check it again.
+                    probe--;
+            }
+            return overflow;
+        }
+
+        private void collect(ResourceKey<Level> dimension, ImmutableList.Builder<ChunkTimings> builder)
+        {
+            for (int i = 0; i < CAPACITY; i++)
+            {
+                LatencyHistogram histogram = values.get(i);
+                if (histogram != null)
+                    builder.add(new ChunkTimings(dimension, new ChunkPos(keys.get(i)), histogram.snapshot()));
+            }
+        }
+    }
 }
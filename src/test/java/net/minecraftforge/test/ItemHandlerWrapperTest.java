@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) Forge Development LLC and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.minecraftforge.test;
+
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.items.IBulkItemHandler;
+import net.minecraftforge.items.IItemHandlerModifiable;
+import net.minecraftforge.items.wrapper.CombinedInvWrapper;
+import net.minecraftforge.items.wrapper.RangedWrapper;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+public class ItemHandlerWrapperTest
+{
+    @Test
+    public void testCombinedIndexForSlot()
+    {
+        // Handlers without slots must never be picked
+        TestCombinedWrapper wrapper = new TestCombinedWrapper(new SizedHandler(0), new SizedHandler(3), new SizedHandler(0), new SizedHandler(2));
+        Assertions.assertEquals(5, wrapper.getSlots());
+        Assertions.assertEquals(1, wrapper.indexForSlot(0));
+        Assertions.assertEquals(1, wrapper.indexForSlot(2));
+        Assertions.assertEquals(3, wrapper.indexForSlot(3));
+        Assertions.assertEquals(3, wrapper.indexForSlot(4));
+        Assertions.assertEquals(-1, wrapper.indexForSlot(5));
+        Assertions.assertEquals(-1, wrapper.indexForSlot(-1));
+    }
+
+    @Test
+    public void testCombinedIndexForSlotWithoutSlots()
+    {
+        Assertions.assertEquals(-1, new TestCombinedWrapper().indexForSlot(0));
+        Assertions.assertEquals(-1, new TestCombinedWrapper(new SizedHandler(0), new SizedHandler(0)).indexForSlot(0));
+    }
+
+    @Test
+    public void testCombinedIndexForSlotMatchesLinearSearch()
+    {
+        int[] sizes = { 2, 0, 1, 4, 0, 0, 3, 1 };
+        IItemHandlerModifiable[] handlers = Arrays.stream(sizes).mapToObj(SizedHandler::new).toArray(IItemHandlerModifiable[]::new);
+        TestCombinedWrapper wrapper = new TestCombinedWrapper(handlers);
+        int slot = 0;
+        for (int index = 0; index < sizes.length; index++)
+        {
+            for (int i = 0; i < sizes[index]; i++)
+                Assertions.assertEquals(index, wrapper.indexForSlot(slot++), "slot " + (slot - 1));
+        }
+        Assertions.assertEquals(-1, wrapper.indexForSlot(slot));
+    }
+
+    @Test
+    public void testRangedFindEmptySlot()
+    {
+        // Composed slots 2 and 6 are empty, the wrapper exposes slots 3 to 7
+        RangedWrapper wrapper = new RangedWrapper(new SizedHandler(10, 2, 6), 3, 8);
+        Assertions.assertEquals(3, wrapper.findEmptySlot(0));
+        Assertions.assertEquals(3, wrapper.findEmptySlot(-1));
+        Assertions.assertEquals(3, wrapper.findEmptySlot(3));
+        Assertions.assertEquals(-1, wrapper.findEmptySlot(4));
+
+        // An empty composed slot past the range must not be reported
+        RangedWrapper start = new RangedWrapper(new SizedHandler(10, 8), 0, 5);
+        Assertions.assertEquals(-1, start.findEmptySlot(0));
+
+        RangedWrapper last = new RangedWrapper(new SizedHandler(10, 4), 0, 5);
+        Assertions.assertEquals(4, last.findEmptySlot(0));
+        Assertions.assertEquals(4, last.findEmptySlot(4));
+        Assertions.assertEquals(-1, last.findEmptySlot(5));
+    }
+
+    private static class TestCombinedWrapper extends CombinedInvWrapper
+    {
+        TestCombinedWrapper(IItemHandlerModifiable... handlers)
+        {
+            super(handlers);
+        }
+
+        int indexForSlot(int slot)
+        {
+            return getIndexForSlot(slot);
+        }
+    }
+
+    /**
+     * A handler that only knows its size and which of its slots are empty, so the tests do not need any items.
+     */
+    private static class SizedHandler implements IItemHandlerModifiable, IBulkItemHandler
+    {
+        private final int slots;
+        private final int[] emptySlots;
+
+        SizedHandler(int slots, int... emptySlots)
+        {
+            this.slots = slots;
+            this.emptySlots = emptySlots;
+        }
+
+        @Override
+        public int findEmptySlot(int fromSlot)
+        {
+            for (int slot : emptySlots)
+            {
+                if (slot >= fromSlot)
+                    return slot;
+            }
+            return -1;
+        }
+
+        @Override
+        public int getSlots()
+        {
+            return slots;
+        }
+
+        @Override
+        public @NotNull ItemStack getStackInSlot(int slot)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public @NotNull ItemStack insertItem(int slot, @NotNull ItemStack stack, boolean simulate)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public @NotNull ItemStack extractItem(int slot, int amount, boolean simulate)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getSlotLimit(int slot)
+        {
+            return 64;
+        }
+
+        @Override
+        public boolean isItemValid(int slot, @NotNull ItemStack stack)
+        {
+            return true;
+        }
+
+        @Override
+        public void setStackInSlot(int slot, @NotNull ItemStack stack)
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) Forge Development LLC and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.minecraftforge.test;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraftforge.items.ItemStackHandler;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class ItemStackHandlerSerializationTest
+{
+    @BeforeAll
+    public static void bootstrap()
+    {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+    }
+
+    @Test
+    public void testModifiedResultDoesNotLeakIntoNextSave()
+    {
+        ItemStackHandler handler = createHandler();
+        CompoundTag expected = handler.serializeNBT();
+
+        CompoundTag first = handler.serializeNBT();
+        CompoundTag slotTag = first.getList("Items", Tag.TAG_COMPOUND).getCompound(0);
+        slotTag.remove("Slot");
+        slotTag.putByte("Count", (byte) 1);
+        slotTag.getCompound("tag").putString("Name", "changed");
+
+        Assertions.assertEquals(expected, handler.serializeNBT());
+    }
+
+    @Test
+    public void testCachedTagsAreNotShared()
+    {
+        ItemStackHandler handler = createHandler();
+        ListTag first = handler.serializeNBT().getList("Items", Tag.TAG_COMPOUND);
+        ListTag second = handler.serializeNBT().getList("Items", Tag.TAG_COMPOUND);
+
+        Assertions.assertEquals(first, second);
+        for (int i = 0; i < first.size(); i++)
+            Assertions.assertNotSame(first.get(i), second.get(i));
+    }
+
+    @Test
+    public void testStacksChangedOutsideTheHandlerAreSaved()
+    {
+        ItemStackHandler handler = createHandler();
+        handler.serializeNBT();
+
+        // Neither change goes through the handler
+        ItemStack stack = handler.getStackInSlot(0);
+        stack.grow(3);
+        stack.getOrCreateTag().putInt("Extra", 7);
+
+        CompoundTag slotTag = handler.serializeNBT().getList("Items", Tag.TAG_COMPOUND).getCompound(0);
+        Assertions.assertEquals(8, slotTag.getByte("Count"));
+        Assertions.assertEquals(7, slotTag.getCompound("tag").getInt("Extra"));
+    }
+
+    @Test
+    public void testRoundTrip()
+    {
+        ItemStackHandler handler = createHandler();
+        ItemStackHandler loaded = new ItemStackHandler();
+        loaded.deserializeNBT(handler.serializeNBT());
+
+        Assertions.assertTrue(handler.isNBTEqual(loaded));
+        Assertions.assertEquals(handler.serializeNBT(), loaded.serializeNBT());
+    }
+
+    private static ItemStackHandler createHandler()
+    {
+        ItemStackHandler handler = new ItemStackHandler(3);
+        ItemStack named = new ItemStack(Items.DIAMOND, 5);
+        named.getOrCreateTag().putString("Name", "original");
+        handler.setStackInSlot(0, named);
+        handler.setStackInSlot(2, new ItemStack(Items.STONE, 12));
+        return handler;
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) Forge Development LLC and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.minecraftforge.test;
+
+import net.minecraftforge.server.timings.LatencyHistogram;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LatencyHistogramTest
+{
+    // Above any value used in these tests, so percentiles are not clamped to the max
+    private static final long LARGE = 1L << 35;
+
+    @Test
+    public void testSmallValuesAreExact()
+    {
+        for (long value = 0; value < 16; value++)
+            Assertions.assertEquals(value, lowerHalfUpperBound(4, value), "value " + value);
+    }
+
+    @Test
+    public void testBucketBoundaries()
+    {
+        // With 16 sub-buckets, [16, 32) is still exact, [32, 64) uses buckets of 2, [64, 128) buckets of 4 and so on
+        Assertions.assertEquals(16, lowerHalfUpperBound(4, 16));
+        Assertions.assertEquals(31, lowerHalfUpperBound(4, 31));
+        Assertions.assertEquals(33, lowerHalfUpperBound(4, 32));
+        Assertions.assertEquals(33, lowerHalfUpperBound(4, 33));
+        Assertions.assertEquals(35, lowerHalfUpperBound(4, 34));
+        Assertions.assertEquals(63, lowerHalfUpperBound(4, 62));
+        Assertions.assertEquals(67, lowerHalfUpperBound(4, 64));
+        Assertions.assertEquals(67, lowerHalfUpperBound(4, 67));
+        Assertions.assertEquals(71, lowerHalfUpperBound(4, 68));
+        Assertions.assertEquals((1L << 20) + (1L << 16) - 1, lowerHalfUpperBound(4, 1L << 20));
+    }
+
+    @Test
+    public void testUpperBoundsMatchBucketWidths()
+    {
+        for (int bits = 1; bits <= 8; bits++)
+        {
+            for (long value = 0; value < 5000; value++)
+                checkUpperBound(bits, value);
+            for (int exponent = 12; exponent < 35; exponent++)
+            {
+                long power = 1L << exponent;
+                checkUpperBound(bits, power - 1);
+                checkUpperBound(bits, power);
+                checkUpperBound(bits, power + 1);
+                checkUpperBound(bits, power + power / 3);
+            }
+        }
+    }
+
+    @Test
+    public void testPercentileRanks()
+    {
+        // Every value below 256 has its own bucket with 8 bits of precision
+        LatencyHistogram histogram = new LatencyHistogram(8);
+        for (int value = 100; value >= 1; value--)
+            histogram.record(value);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        Assertions.assertEquals(100, snapshot.getCount());
+        Assertions.assertEquals(5050, snapshot.getTotal());
+        Assertions.assertEquals(50.5, snapshot.getMean(), 1e-9);
+        Assertions.assertEquals(100, snapshot.getMax());
+        // Nearest rank, the smallest sample at least as large as the given share of samples
+        Assertions.assertEquals(1, snapshot.getPercentile(0));
+        Assertions.assertEquals(1, snapshot.getPercentile(1));
+        Assertions.assertEquals(2, snapshot.getPercentile(1.5));
+        Assertions.assertEquals(50, snapshot.getPercentile(50));
+        Assertions.assertEquals(51, snapshot.getPercentile(50.1));
+        Assertions.assertEquals(99, snapshot.getPercentile(99));
+        Assertions.assertEquals(100, snapshot.getPercentile(99.5));
+        Assertions.assertEquals(100, snapshot.getPercentile(100));
+        // Out of range percentiles are clamped
+        Assertions.assertEquals(1, snapshot.getPercentile(-5));
+        Assertions.assertEquals(100, snapshot.getPercentile(250));
+    }
+
+    @Test
+    public void testPercentileBetweenBuckets()
+    {
+        LatencyHistogram histogram = new LatencyHistogram(4);
+        for (int i = 0; i < 90; i++)
+            histogram.record(1000);
+        for (int i = 0; i < 10; i++)
+            histogram.record(100_000);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        long low = snapshot.getPercentile(90);
+        long high = snapshot.getPercentile(91);
+        Assertions.assertTrue(low >= 1000 && low < 1000 * 17 / 16, "p90 " + low);
+        // The largest bucket is capped by the recorded maximum
+        Assertions.assertEquals(100_000, high);
+        Assertions.assertEquals(100_000, snapshot.getPercentile(100));
+    }
+
+    @Test
+    public void testPercentileIsCappedByMax()
+    {
+        LatencyHistogram histogram = new LatencyHistogram(4);
+        histogram.record(1000);
+        // 1000 falls into [992, 1023], but nothing above 1000 was recorded
+        Assertions.assertEquals(1000, histogram.snapshot().getPercentile(50));
+    }
+
+    @Test
+    public void testOverflowIsClamped()
+    {
+        long limit = (1L << 40) - 1;
+        LatencyHistogram histogram = new LatencyHistogram(4);
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(1L << 50);
+        histogram.record(limit);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        Assertions.assertEquals(3, snapshot.getCount());
+        Assertions.assertEquals(limit, snapshot.getMax());
+        Assertions.assertEquals(3 * limit, snapshot.getTotal());
+        Assertions.assertEquals(limit, snapshot.getPercentile(1));
+        Assertions.assertEquals(limit, snapshot.getPercentile(100));
+    }
+
+    @Test
+    public void testNegativeValuesAreZero()
+    {
+        LatencyHistogram histogram = new LatencyHistogram(4);
+        histogram.record(-5);
+        histogram.record(Long.MIN_VALUE);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        Assertions.assertEquals(2, snapshot.getCount());
+        Assertions.assertEquals(0, snapshot.getTotal());
+        Assertions.assertEquals(0, snapshot.getMax());
+        Assertions.assertEquals(0, snapshot.getPercentile(100));
+    }
+
+    @Test
+    public void testEmptyAndReset()
+    {
+        LatencyHistogram histogram = new LatencyHistogram(4);
+        LatencyHistogram.Snapshot empty = histogram.snapshot();
+        Assertions.assertEquals(0, empty.getCount());
+        Assertions.assertEquals(0, empty.getPercentile(50));
+        Assertions.assertEquals(0, empty.getMean(), 0);
+
+        histogram.record(5000);
+        histogram.reset();
+        LatencyHistogram.Snapshot reset = histogram.snapshot();
+        Assertions.assertEquals(0, reset.getCount());
+        Assertions.assertEquals(0, reset.getTotal());
+        Assertions.assertEquals(0, reset.getMax());
+        Assertions.assertEquals(0, reset.getPercentile(100));
+    }
+
+    @Test
+    public void testPrecisionBounds()
+    {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LatencyHistogram(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LatencyHistogram(9));
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException
+    {
+        LatencyHistogram histogram = new LatencyHistogram(4);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++)
+        {
+            threads.add(new Thread(() -> {
+                for (int i = 1; i <= 10000; i++)
+                    histogram.record(i);
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads)
+            thread.join();
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        Assertions.assertEquals(40000, snapshot.getCount());
+        Assertions.assertEquals(4 * 50005000L, snapshot.getTotal());
+        Assertions.assertEquals(10000, snapshot.getMax());
+    }
+
+    /**
+     * Records the value together with a much larger one, the median is then the upper bound of the value's bucket.
+     */
+    private static long lowerHalfUpperBound(int subBucketBits, long value)
+    {
+        LatencyHistogram histogram = new LatencyHistogram(subBucketBits);
+        histogram.record(value);
+        histogram.record(LARGE);
+        return histogram.snapshot().getPercentile(50);
+    }
+
+    private static void checkUpperBound(int subBucketBits, long value)
+    {
+        long expected;
+        if (value < (1L << subBucketBits))
+        {
+            expected = value;
+        }
+        else
+        {
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            long width = 1L << (exponent - subBucketBits);
+            expected = value / width * width + width - 1;
+        }
+        long actual = lowerHalfUpperBound(subBucketBits, value);
+        Assertions.assertEquals(expected, actual, subBucketBits + " bits, value " + value);
+        // The reported bound never exceeds the value by more than the promised precision
+        Assertions.assertTrue(actual - value <= value >> subBucketBits, subBucketBits + " bits, value " + value);
+    }
+}
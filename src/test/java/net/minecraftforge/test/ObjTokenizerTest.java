@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) Forge Development LLC and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.minecraftforge.test;
+
+import com.google.common.base.Strings;
+import net.minecraftforge.client.model.obj.ObjTokenizer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ObjTokenizerTest
+{
+    private static final String[] FLOATS = {
+            "0", "-0", "+0", "0.0", "-0.0", "1", "-1", "+1", "1.", "-1.", ".5", "-.5", "0.5", "1.50", "10", "100.000",
+            "0.1", "0.2", "0.3", "0.7", "-0.333333", "3.14159", "2.7182817", "0.000001", "0.0000001", "0.00000001",
+            "0.0000000001", "0.00000000001", "1e5", "1E-5", "-2.5e+3", "1.5e38", "1e-45", "12345678", "123456789",
+            "16777216", "16777217", "16777215.5", "0.16777217", "99999999.9", "1234567890123456789", "0.123456789012345678901",
+            "00001.25", "1f", "2.5d", "Infinity", "-Infinity", "NaN"
+    };
+
+    @Test
+    public void testParseFloatMatchesFloatParseFloat() throws IOException
+    {
+        ObjTokenizer tokenizer = tokenizer(String.join(" ", FLOATS));
+        Assertions.assertTrue(tokenizer.nextLine(true));
+        Assertions.assertEquals(FLOATS.length, tokenizer.tokenCount());
+        for (int i = 0; i < FLOATS.length; i++)
+        {
+            float expected = Float.parseFloat(FLOATS[i]);
+            // Compare the bits, so -0 and 0 are told apart and NaN equals itself
+            Assertions.assertEquals(Float.floatToIntBits(expected), Float.floatToIntBits(tokenizer.parseFloat(i)), FLOATS[i]);
+        }
+    }
+
+    @Test
+    public void testParseFloatMatchesForDecimals() throws IOException
+    {
+        // Every decimal with up to 4 fraction digits around the range of model coordinates
+        StringBuilder line = new StringBuilder();
+        List<String> values = new ArrayList<>();
+        for (int i = -40000; i <= 40000; i += 7)
+        {
+            String value = (i < 0 ? "-" : "") + Math.abs(i) / 10000 + "." + Strings.padStart(Integer.toString(Math.abs(i) % 10000), 4, '0');
+            values.add(value);
+            line.append(value).append(' ');
+        }
+
+        ObjTokenizer tokenizer = tokenizer(line.toString());
+        Assertions.assertTrue(tokenizer.nextLine(true));
+        for (int i = 0; i < values.size(); i++)
+            Assertions.assertEquals(Float.floatToIntBits(Float.parseFloat(values.get(i))), Float.floatToIntBits(tokenizer.parseFloat(i)), values.get(i));
+    }
+
+    @Test
+    public void testParseFloatRejectsWhatFloatParseFloatRejects() throws IOException
+    {
+        ObjTokenizer tokenizer = tokenizer("- . -. 1..2 1-2 abc");
+        Assertions.assertTrue(tokenizer.nextLine(true));
+        for (int i = 0; i < tokenizer.tokenCount(); i++)
+        {
+            int index = i;
+            Assertions.assertThrows(NumberFormatException.class, () -> tokenizer.parseFloat(index), tokenizer.token(i));
+        }
+    }
+
+    @Test
+    public void testParseIntMatchesIntegerParseInt() throws IOException
+    {
+        String[] ints = { "0", "-0", "+7", "42", "-42", "999999999", "2147483647", "-2147483648", "0012" };
+        ObjTokenizer tokenizer = tokenizer(String.join(" ", ints));
+        Assertions.assertTrue(tokenizer.nextLine(true));
+        for (int i = 0; i < ints.length; i++)
+            Assertions.assertEquals(Integer.parseInt(ints[i]), tokenizer.parseInt(i), ints[i]);
+    }
+
+    @Test
+    public void testParseIndicesMatchesSplit() throws IOException
+    {
+        String[] faces = { "1", "-1", "1/2", "1/2/3", "1//3", "1/2/3/4", "-1/-2/-3", "1//", "1/2/", "1///", "//3", "/2/", "12/345/6789", "1/+2/3" };
+        ObjTokenizer tokenizer = tokenizer("f " + String.join(" ", faces));
+        Assertions.assertTrue(tokenizer.nextLine(true));
+        int[] indices = new int[4];
+        for (int i = 0; i < faces.length; i++)
+        {
+            int[] expected = oldParseIndices(faces[i]);
+            int count = tokenizer.parseIndices(i + 1, indices);
+            Assertions.assertArrayEquals(expected, Arrays.copyOf(indices, count), faces[i]);
+        }
+    }
+
+    @Test
+    public void testParseIndicesIgnoresExtraParts() throws IOException
+    {
+        ObjTokenizer tokenizer = tokenizer("1/2/3/4/5");
+        Assertions.assertTrue(tokenizer.nextLine(true));
+        int[] indices = new int[3];
+        Assertions.assertEquals(3, tokenizer.parseIndices(0, indices));
+        Assertions.assertArrayEquals(new int[] { 1, 2, 3 }, indices);
+    }
+
+    @Test
+    public void testLinesMatchOldTokenizer() throws IOException
+    {
+        String[] files = {
+                "v 1 2 3\nv 4 5 6\n",
+                "v 1 2 3\r\nv 4 5 6\r\n",
+                "v 1 2 3\rv 4 5 6\r",
+                "v 1 2 3\n\r\nv 4 5 6",
+                "v 1 2 3\r\rv 4 5 6",
+                "# comment\nv 1 2 3\n  # not a comment\n",
+                "v\t1 \t 2\t\t3   \n\t \nvn 0 1 0",
+                "f 1 2 \\\n3 4\nf 5 6 7",
+                "f 1 2 \\\r\n3 4\r\nf 5 6 7",
+                "f 1 2 \\\r3 \\\r\n4\rf 5 6 7",
+                "f 1 2 \\\n\nf 3 4 5",
+                "f 1 2 \\\n# comment\nf 3 4 5",
+                "f 1 2 \\",
+                "f 1 2\\\n3\\\n4",
+                "usemtl  material name  with spaces \n",
+                "\n\n\n",
+                "",
+                "v 1 2 3",
+                "v " + "1.5 ".repeat(200) + "\n" + "x".repeat(5000) + "\nv 1 2 3",
+        };
+        for (String file : files)
+        {
+            Assertions.assertEquals(oldLines(file, true), newLines(file, true), file);
+            Assertions.assertEquals(oldLines(file, false), newLines(file, false), file);
+        }
+    }
+
+    @Test
+    public void testLinesAcrossBufferBoundaries() throws IOException
+    {
+        // Long enough to fill the read buffer several times, with line breaks at every offset
+        StringBuilder file = new StringBuilder();
+        for (int i = 0; i < 3000; i++)
+        {
+            file.append("v ").append(i).append(' ').append(-i).append(".25");
+            file.append(i % 3 == 0 ? "\r\n" : i % 3 == 1 ? "\n" : "\r");
+            if (i % 17 == 0)
+                file.append("f 1 \\\r\n2 3\n");
+        }
+        String text = file.toString();
+        Assertions.assertEquals(oldLines(text, true), newLines(text, true));
+    }
+
+    @Test
+    public void testMatchToken() throws IOException
+    {
+        String[] keywords = { "v", "vt", "vn", "f" };
+        ObjTokenizer tokenizer = tokenizer("vt 1 2\nv\nvx 1\nvn");
+        Assertions.assertTrue(tokenizer.nextLine(true));
+        Assertions.assertSame(keywords[1], tokenizer.matchToken(0, keywords));
+        Assertions.assertEquals("", tokenizer.matchToken(3, keywords));
+        Assertions.assertTrue(tokenizer.nextLine(true));
+        Assertions.assertSame(keywords[0], tokenizer.matchToken(0, keywords));
+        Assertions.assertTrue(tokenizer.nextLine(true));
+        Assertions.assertEquals("", tokenizer.matchToken(0, keywords));
+        Assertions.assertTrue(tokenizer.nextLine(true));
+        Assertions.assertSame(keywords[2], tokenizer.matchToken(0, keywords));
+    }
+
+    private static ObjTokenizer tokenizer(String text)
+    {
+        return new ObjTokenizer(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static List<List<String>> newLines(String text, boolean ignoreEmptyLines) throws IOException
+    {
+        List<List<String>> ret = new ArrayList<>();
+        try (ObjTokenizer tokenizer = tokenizer(text))
+        {
+            for (String[] line; (line = tokenizer.readAndSplitLine(ignoreEmptyLines)) != null; )
+                ret.add(Arrays.asList(line));
+        }
+        return ret;
+    }
+
+    /**
+     * How the tokenizer split lines before it kept them in a character buffer.
+     */
+    private static List<List<String>> oldLines(String text, boolean ignoreEmptyLines) throws IOException
+    {
+        List<List<String>> ret = new ArrayList<>();
+        BufferedReader lineReader = new BufferedReader(new StringReader(text));
+        while (true)
+        {
+            List<String> lineParts = new ArrayList<>();
+            String currentLine;
+            do
+            {
+                currentLine = lineReader.readLine();
+                if (currentLine == null)
+                    return ret;
+
+                lineParts.clear();
+                if (currentLine.startsWith("#"))
+                    currentLine = "";
+
+                if (currentLine.length() > 0)
+                {
+                    boolean hasContinuation;
+                    do
+                    {
+                        hasContinuation = currentLine.endsWith("\\");
+                        String tmp = hasContinuation ? currentLine.substring(0, currentLine.length() - 1) : currentLine;
+
+                        Arrays.stream(tmp.split("[\t ]+")).filter(s -> !Strings.isNullOrEmpty(s)).forEach(lineParts::add);
+
+                        if (hasContinuation)
+                        {
+                            currentLine = lineReader.readLine();
+                            if (currentLine == null)
+                                break;
+
+                            if (currentLine.length() == 0 || currentLine.startsWith("#"))
+                                break;
+                        }
+                    } while (hasContinuation);
+                }
+            }
+            while (ignoreEmptyLines && lineParts.isEmpty());
+            ret.add(new ArrayList<>(lineParts));
+        }
+    }
+
+    /**
+     * How face vertices were parsed before the tokenizer parsed them in place.
+     */
+    private static int[] oldParseIndices(String vertexData)
+    {
+        return Arrays.stream(vertexData.split("/")).mapToInt(num -> Strings.isNullOrEmpty(num) ? 0 : Integer.parseInt(num)).toArray();
+    }
+}